@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost per MotionEvent of the swipe gesture state machine for typical DOWN/MOVE/UP sequences.
+ * Run with "-prof gc" to report allocations per gesture
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwipeGestureBenchmark {
+
+    /**
+     * Moves per gesture, about 150 ms of a 120 Hz touch panel
+     */
+    private static final int MOVES = 18;
+
+    /**
+     * Events per gesture: DOWN, MOVES and UP
+     */
+    private static final int EVENTS = MOVES + 2;
+
+    private static final int VIEW_WIDTH = 1080;
+
+    private SwipeGesture gesture;
+
+    @Setup
+    public void setUp() {
+        gesture = new SwipeGesture(24, 48, 150, 24000);
+        gesture.setViewWidth(VIEW_WIDTH);
+        gesture.setSwipeActionLeft(SwipeGesture.SWIPE_ACTION_REVEAL);
+        gesture.setSwipeActionRight(SwipeGesture.SWIPE_ACTION_DISMISS);
+    }
+
+    /**
+     * Horizontal fling that ends as a swipe
+     */
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void swipe(Blackhole blackhole) {
+        gesture.down(500f, 500f, 300f);
+        gesture.track(false, false);
+        for (int i = 1; i <= MOVES; i++) {
+            blackhole.consume(gesture.move(500f - i * 30f, 500f - i * 30f, 300f + i, -3000f, 50f));
+            blackhole.consume(gesture.getTranslation());
+        }
+        blackhole.consume(gesture.up(500f - MOVES * 30f, -3000f, 50f));
+        blackhole.consume(gesture.isSwap());
+    }
+
+    /**
+     * Vertical drag that ends up scrolling the list
+     */
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void scroll(Blackhole blackhole) {
+        gesture.down(500f, 500f, 300f);
+        gesture.track(false, false);
+        for (int i = 1; i <= MOVES; i++) {
+            blackhole.consume(gesture.move(500f + i, 500f + i, 300f + i * 20f, 60f, 2000f));
+        }
+        blackhole.consume(gesture.up(500f + MOVES, 60f, 2000f));
+        blackhole.consume(gesture.isScrollingY());
+    }
+
+    /**
+     * Tap that never moves past the touch slop
+     */
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void tap(Blackhole blackhole) {
+        gesture.down(500f, 500f, 300f);
+        gesture.track(false, false);
+        blackhole.consume(gesture.up(500f, 0f, 0f));
+    }
+
+}
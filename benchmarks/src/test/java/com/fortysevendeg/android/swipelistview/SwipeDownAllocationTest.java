@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the gesture bookkeeping of ACTION_DOWN allocates nothing: the same SwipeGesture calls
+ * onTouch makes to start the gesture and track the touched row from its swipe state. The hit testing
+ * and VelocityTracker reuse need the platform and are not covered
+ */
+public class SwipeDownAllocationTest {
+
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 100000;
+
+    private com.sun.management.ThreadMXBean threadBean;
+    private SwipeGesture gesture;
+    private SwipeStateStore swipeStates;
+    private int sink;
+
+    @Before
+    public void setUp() {
+        threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        gesture = new SwipeGesture(24, 48, 150, 24000);
+        gesture.setViewWidth(1080);
+        swipeStates = new SwipeStateStore();
+        for (int position = 0; position < 1000; position += 3) {
+            swipeStates.setOpened(position, true, position % 2 == 0);
+        }
+    }
+
+    @Test
+    public void downDoesNotAllocate() {
+        for (int i = 0; i < WARMUP; i++) {
+            down(i);
+        }
+        long threadId = Thread.currentThread().getId();
+        long overhead = allocatedBetweenReads(threadId);
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            down(i);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+        assertEquals("bytes allocated by " + ITERATIONS + " down events", 0, Math.max(0, allocated));
+    }
+
+    private void down(int i) {
+        int position = i % 1000;
+        if (gesture.down(500f, 500f, position) && gesture.track(swipeStates, position)) {
+            sink++;
+        }
+        gesture.cancel();
+    }
+
+    /**
+     * @return bytes the counter itself reports between two consecutive reads
+     */
+    private long allocatedBetweenReads(long threadId) {
+        long first = threadBean.getThreadAllocatedBytes(threadId);
+        return threadBean.getThreadAllocatedBytes(threadId) - first;
+    }
+
+}
@@ -0,0 +1,486 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+import android.os.Build;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
+import com.nineoldandroids.animation.ValueAnimator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.nineoldandroids.view.ViewHelper.setAlpha;
+import static com.nineoldandroids.view.ViewHelper.setTranslationX;
+
+/**
+ * Drives every row animation of a SwipeListView from a single frame callback. From Jelly Bean on the callback
+ * is a Choreographer frame callback, so it runs once per display frame; before, a repeating ValueAnimator
+ * ticks every 10 milliseconds. Animation records are pooled, and can be canceled, finished or taken over
+ * by a new animation while running. Other per frame work, like coalesced swipe moves, can be scheduled on the same frame
+ */
+class SwipeAnimationEngine {
+
+    /**
+     * Receives the progress of the row animations
+     */
+    interface Callback {
+
+        /**
+         * Called on every frame after the animated properties are applied
+         * @param animation running animation
+         */
+        void onRowAnimationUpdate(RowAnimation animation);
+
+        /**
+         * Called when an animation ends
+         * @param animation ended animation
+         * @param finished true if the animation reached its end values, false if it was canceled
+         */
+        void onRowAnimationEnd(RowAnimation animation, boolean finished);
+
+    }
+
+    /**
+     * Reveal or close of the front view
+     */
+    static final int TYPE_REVEAL = 0;
+
+    /**
+     * Row swiped out of the list
+     */
+    static final int TYPE_DISMISS = 1;
+
+    /**
+     * Collapse of a dismissed row
+     */
+    static final int TYPE_COLLAPSE = 2;
+
+    private static final Interpolator DEFAULT_INTERPOLATOR = new AccelerateDecelerateInterpolator();
+
+    /**
+     * Pooled animation record of a row
+     */
+    static final class RowAnimation {
+        int type;
+        View view;
+
+        boolean animateX;
+        float fromX;
+        float toX;
+
+        boolean animateAlpha;
+        float fromAlpha;
+        float toAlpha;
+
+        long duration;
+        long startTime;
+        Interpolator interpolator;
+
+        /**
+         * Interpolated progress of the last frame, from 0 to 1
+         */
+        float fraction;
+
+        int position;
+        long key;
+        boolean swap;
+        boolean swapRight;
+        Object data;
+
+        private boolean ended;
+        private RowAnimation nextInPool;
+
+        /**
+         * Sets the translationX range
+         * @param fromX start value
+         * @param toX end value
+         * @return this animation
+         */
+        RowAnimation translationX(float fromX, float toX) {
+            this.animateX = true;
+            this.fromX = fromX;
+            this.toX = toX;
+            return this;
+        }
+
+        /**
+         * Sets the alpha range
+         * @param fromAlpha start value
+         * @param toAlpha end value
+         * @return this animation
+         */
+        RowAnimation alpha(float fromAlpha, float toAlpha) {
+            this.animateAlpha = true;
+            this.fromAlpha = fromAlpha;
+            this.toAlpha = toAlpha;
+            return this;
+        }
+
+        private void reset() {
+            view = null;
+            data = null;
+            interpolator = DEFAULT_INTERPOLATOR;
+            animateX = false;
+            animateAlpha = false;
+            fraction = 0;
+            startTime = -1;
+            ended = false;
+        }
+    }
+
+    /**
+     * Source of the frame callbacks
+     */
+    private interface Ticker {
+        void start();
+        void stop();
+        boolean isRunning();
+    }
+
+    /**
+     * Ticks on every vsync
+     */
+    private static final class ChoreographerTicker implements Ticker, Choreographer.FrameCallback {
+        private final SwipeAnimationEngine engine;
+        private boolean running;
+        private boolean posted;
+
+        ChoreographerTicker(SwipeAnimationEngine engine) {
+            this.engine = engine;
+        }
+
+        @Override
+        public void start() {
+            running = true;
+            post();
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+            if (posted) {
+                posted = false;
+                Choreographer.getInstance().removeFrameCallback(this);
+            }
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            posted = false;
+            engine.onFrame();
+            if (running) {
+                post();
+            }
+        }
+
+        /**
+         * Posts the callback for the next frame, once even if the ticker is stopped and started again within a frame
+         */
+        private void post() {
+            if (!posted) {
+                posted = true;
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+    }
+
+    /**
+     * Ticks on the animation handler of nineoldandroids, for platforms without Choreographer
+     */
+    private static final class AnimatorTicker implements Ticker, ValueAnimator.AnimatorUpdateListener {
+        private final SwipeAnimationEngine engine;
+        private final ValueAnimator animator;
+
+        AnimatorTicker(SwipeAnimationEngine engine) {
+            this.engine = engine;
+            animator = ValueAnimator.ofFloat(0f, 1f);
+            animator.setRepeatCount(ValueAnimator.INFINITE);
+            animator.addUpdateListener(this);
+        }
+
+        @Override
+        public void start() {
+            if (!animator.isRunning()) {
+                animator.start();
+            }
+        }
+
+        @Override
+        public void stop() {
+            animator.cancel();
+        }
+
+        @Override
+        public boolean isRunning() {
+            return animator.isRunning();
+        }
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator valueAnimator) {
+            engine.onFrame();
+        }
+    }
+
+    private final Ticker ticker;
+    private Callback callback;
+
+    private final List<RowAnimation> active = new ArrayList<RowAnimation>();
+    private final List<RowAnimation> queued = new ArrayList<RowAnimation>();
+    private final List<Runnable> frameCallbacks = new ArrayList<Runnable>();
+    private RowAnimation pool;
+    private boolean ticking;
+    private int maxConcurrentAnimations = 0;
+
+    /**
+     * Constructor
+     */
+    SwipeAnimationEngine() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            ticker = new ChoreographerTicker(this);
+        } else {
+            ticker = new AnimatorTicker(this);
+        }
+    }
+
+    /**
+     * Sets the callback of the animations
+     * @param callback Callback
+     */
+    void setCallback(Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * Sets the maximum number of rows animating at once. Extra animations wait for a free slot
+     * @param maxConcurrentAnimations maximum, 0 for no limit
+     */
+    void setMaxConcurrentAnimations(int maxConcurrentAnimations) {
+        this.maxConcurrentAnimations = maxConcurrentAnimations;
+    }
+
+    /**
+     * Returns a clean animation record from the pool
+     * @param type animation type
+     * @param view animated view
+     * @param duration duration in milliseconds
+     * @return animation to configure and pass to start
+     */
+    RowAnimation obtain(int type, View view, long duration) {
+        RowAnimation animation = pool;
+        if (animation != null) {
+            pool = animation.nextInPool;
+            animation.nextInPool = null;
+        } else {
+            animation = new RowAnimation();
+        }
+        animation.reset();
+        animation.type = type;
+        animation.view = view;
+        animation.duration = duration;
+        return animation;
+    }
+
+    /**
+     * Starts an animation. Any previous animation of the same type on the same view is canceled,
+     * so the new one takes over from the current values
+     * @param animation animation from obtain
+     */
+    void start(RowAnimation animation) {
+        cancel(animation.view, animation.type);
+        if (maxConcurrentAnimations > 0 && active.size() >= maxConcurrentAnimations) {
+            queued.add(animation);
+        } else {
+            active.add(animation);
+        }
+        ticker.start();
+    }
+
+    /**
+     * Finds the running or queued animation of a view
+     * @param view animated view
+     * @param type animation type
+     * @return animation, null if there is none
+     */
+    RowAnimation find(View view, int type) {
+        RowAnimation animation = find(active, view, type);
+        return animation != null ? animation : find(queued, view, type);
+    }
+
+    /**
+     * Cancels the animation of a given type of a view, leaving it at its current values
+     * @param view animated view
+     * @param type animation type
+     */
+    void cancel(View view, int type) {
+        endAll(view, type, false);
+    }
+
+    /**
+     * Jumps every animation of a view to its end values
+     * @param view animated view
+     */
+    void finish(View view) {
+        endAll(view, -1, true);
+    }
+
+    /**
+     * Runs a callback once on the next frame, before the row animations are ticked.
+     * Scheduling a callback that is already pending does nothing
+     * @param callback callback to run
+     */
+    void scheduleFrame(Runnable callback) {
+        if (!frameCallbacks.contains(callback)) {
+            frameCallbacks.add(callback);
+        }
+        ticker.start();
+    }
+
+    /**
+     * Removes a pending frame callback
+     * @param callback callback to remove
+     * @return true if the callback was pending
+     */
+    boolean unscheduleFrame(Runnable callback) {
+        return frameCallbacks.remove(callback);
+    }
+
+    /**
+     * Runs the scheduled frame callbacks and ticks all running animations
+     */
+    private void onFrame() {
+        long now = SystemClock.uptimeMillis();
+        for (int i = frameCallbacks.size() - 1; i >= 0; i--) {
+            frameCallbacks.remove(i).run();
+        }
+        ticking = true;
+        for (int i = 0; i < active.size(); i++) {
+            RowAnimation animation = active.get(i);
+            if (animation.ended) {
+                continue;
+            }
+            if (animation.startTime < 0) {
+                animation.startTime = now;
+            }
+            float t = animation.duration > 0 ? Math.min(1f, (float) (now - animation.startTime) / animation.duration) : 1f;
+            apply(animation, animation.interpolator.getInterpolation(t));
+            if (t >= 1f) {
+                end(animation, true);
+            }
+        }
+        ticking = false;
+        compact();
+    }
+
+    private static RowAnimation find(List<RowAnimation> animations, View view, int type) {
+        for (int i = 0, size = animations.size(); i < size; i++) {
+            RowAnimation animation = animations.get(i);
+            if (!animation.ended && animation.view == view && (type < 0 || animation.type == type)) {
+                return animation;
+            }
+        }
+        return null;
+    }
+
+    private void endAll(View view, int type, boolean finished) {
+        boolean found = false;
+        for (int i = 0; i < active.size(); i++) {
+            found |= endIfMatches(active.get(i), view, type, finished);
+        }
+        for (int i = 0; i < queued.size(); i++) {
+            found |= endIfMatches(queued.get(i), view, type, finished);
+        }
+        if (found && !ticking) {
+            compact();
+        }
+    }
+
+    private boolean endIfMatches(RowAnimation animation, View view, int type, boolean finished) {
+        if (animation.ended || animation.view != view || (type >= 0 && animation.type != type)) {
+            return false;
+        }
+        if (finished) {
+            apply(animation, 1f);
+        }
+        end(animation, finished);
+        return true;
+    }
+
+    private void apply(RowAnimation animation, float fraction) {
+        animation.fraction = fraction;
+        if (animation.animateX) {
+            setTranslationX(animation.view, animation.fromX + (animation.toX - animation.fromX) * fraction);
+        }
+        if (animation.animateAlpha) {
+            setAlpha(animation.view, animation.fromAlpha + (animation.toAlpha - animation.fromAlpha) * fraction);
+        }
+        if (callback != null) {
+            callback.onRowAnimationUpdate(animation);
+        }
+    }
+
+    private void end(RowAnimation animation, boolean finished) {
+        animation.ended = true;
+        if (callback != null) {
+            callback.onRowAnimationEnd(animation, finished);
+        }
+    }
+
+    /**
+     * Recycles ended animations, promotes queued ones and stops the ticker when idle
+     */
+    private void compact() {
+        recycleEnded(active);
+        recycleEnded(queued);
+        while (!queued.isEmpty() && (maxConcurrentAnimations <= 0 || active.size() < maxConcurrentAnimations)) {
+            active.add(queued.remove(0));
+        }
+        if (active.isEmpty() && frameCallbacks.isEmpty() && ticker.isRunning()) {
+            ticker.stop();
+        }
+    }
+
+    private void recycleEnded(List<RowAnimation> animations) {
+        int size = animations.size();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            RowAnimation animation = animations.get(i);
+            if (animation.ended) {
+                animation.view = null;
+                animation.data = null;
+                animation.nextInPool = pool;
+                pool = animation;
+            } else {
+                animations.set(kept++, animation);
+            }
+        }
+        for (int i = size - 1; i >= kept; i--) {
+            animations.remove(i);
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+import android.graphics.drawable.Drawable;
+
+/**
+ * Back action painted by the SwipeListView in the region uncovered by the front view.
+ * Rows revealing drawn actions don't need a back view hierarchy
+ */
+public class SwipeBackAction {
+
+    /**
+     * Default label color
+     */
+    public final static int DEFAULT_LABEL_COLOR = 0xFFFFFFFF;
+
+    private final int id;
+    private final int width;
+    private final int color;
+    private Drawable icon;
+    private String label;
+    private int labelColor = DEFAULT_LABEL_COLOR;
+    private float labelSize;
+
+    /**
+     * Constructor
+     *
+     * @param id       Identifier of the action, passed to onClickBackAction
+     * @param width    Width of the action in pixels. The action closest to the front view fills any extra room
+     * @param color    Background color
+     */
+    public SwipeBackAction(int id, int width, int color) {
+        this.id = id;
+        this.width = width;
+        this.color = color;
+    }
+
+    /**
+     * @return Identifier of the action
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return Width of the action in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Background color
+     */
+    public int getColor() {
+        return color;
+    }
+
+    /**
+     * Return icon drawn centered on the action
+     *
+     * @return Icon, null if the action has none
+     */
+    public Drawable getIcon() {
+        return icon;
+    }
+
+    /**
+     * Set icon drawn centered on the action, at its intrinsic size
+     *
+     * @param icon Icon
+     */
+    public void setIcon(Drawable icon) {
+        this.icon = icon;
+    }
+
+    /**
+     * Return label drawn below the icon
+     *
+     * @return Label, null if the action has none
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Set label drawn below the icon, or centered if there is no icon
+     *
+     * @param label Label
+     */
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return Label color
+     */
+    public int getLabelColor() {
+        return labelColor;
+    }
+
+    /**
+     * Set label color
+     *
+     * @param labelColor Color
+     */
+    public void setLabelColor(int labelColor) {
+        this.labelColor = labelColor;
+    }
+
+    /**
+     * @return Label size in pixels, 0 for the default size
+     */
+    public float getLabelSize() {
+        return labelSize;
+    }
+
+    /**
+     * Set label size
+     *
+     * @param labelSize Size in pixels, 0 for the default size
+     */
+    public void setLabelSize(float labelSize) {
+        this.labelSize = labelSize;
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import static com.nineoldandroids.view.ViewHelper.getTranslationX;
+
+/**
+ * Paints the back actions of a row in the strip uncovered by its translated front view, and finds
+ * the action under a touch with the same geometry. Actions on the left are revealed swiping toward
+ * the right and the other way around; the first action of each side is the closest to the row edge
+ */
+class SwipeBackActionPainter {
+
+    private static final SwipeBackAction[] NO_ACTIONS = new SwipeBackAction[0];
+
+    private SwipeBackAction[] actionsLeft = NO_ACTIONS;
+    private SwipeBackAction[] actionsRight = NO_ACTIONS;
+
+    private final Paint backgroundPaint = new Paint();
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float defaultLabelSize;
+
+    /**
+     * Position of the front view in the list, set by locateFrontView
+     */
+    private int frontLeft;
+    private int frontTop;
+
+    /**
+     * Constructor
+     * @param defaultLabelSize label size in pixels for actions without their own size
+     */
+    SwipeBackActionPainter(float defaultLabelSize) {
+        this.defaultLabelSize = defaultLabelSize;
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    void setActionsLeft(SwipeBackAction[] actionsLeft) {
+        this.actionsLeft = actionsLeft != null ? actionsLeft : NO_ACTIONS;
+    }
+
+    void setActionsRight(SwipeBackAction[] actionsRight) {
+        this.actionsRight = actionsRight != null ? actionsRight : NO_ACTIONS;
+    }
+
+    /**
+     * @return true if any side has actions
+     */
+    boolean hasActions() {
+        return actionsLeft.length > 0 || actionsRight.length > 0;
+    }
+
+    /**
+     * Paints the actions uncovered by the front view of a row
+     * @param canvas canvas of the list
+     * @param rowView row view, child of the list
+     * @param frontView front view, anywhere inside the row
+     */
+    void draw(Canvas canvas, View rowView, View frontView) {
+        float translation = getTranslationX(frontView);
+        SwipeBackAction[] actions = translation > 0 ? actionsLeft : actionsRight;
+        if (translation == 0 || actions.length == 0) {
+            return;
+        }
+        locateFrontView(rowView, frontView);
+        int top = frontTop;
+        int bottom = top + frontView.getHeight();
+        int saveCount = canvas.save();
+        if (translation > 0) {
+            int stripLeft = frontLeft;
+            int stripRight = stripLeft + (int) translation;
+            canvas.clipRect(stripLeft, top, stripRight, bottom);
+            int left = stripLeft;
+            for (int i = 0; i < actions.length; i++) {
+                int right = left + actions[i].getWidth();
+                if (i == actions.length - 1) {
+                    right = Math.max(right, stripRight);
+                }
+                drawAction(canvas, actions[i], left, top, right, bottom);
+                left = right;
+            }
+        } else {
+            int stripRight = frontLeft + frontView.getWidth();
+            int stripLeft = stripRight + (int) translation;
+            canvas.clipRect(stripLeft, top, stripRight, bottom);
+            int right = stripRight;
+            for (int i = 0; i < actions.length; i++) {
+                int left = right - actions[i].getWidth();
+                if (i == actions.length - 1) {
+                    left = Math.min(left, stripLeft);
+                }
+                drawAction(canvas, actions[i], left, top, right, bottom);
+                right = left;
+            }
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Finds the visible action under a point
+     * @param rowView row view, child of the list
+     * @param frontView front view, anywhere inside the row
+     * @param x X in list coordinates
+     * @param y Y in list coordinates
+     * @return action, null if the point is not on a visible action
+     */
+    SwipeBackAction hitTest(View rowView, View frontView, float x, float y) {
+        float translation = getTranslationX(frontView);
+        SwipeBackAction[] actions = translation > 0 ? actionsLeft : actionsRight;
+        if (translation == 0 || actions.length == 0) {
+            return null;
+        }
+        locateFrontView(rowView, frontView);
+        int top = frontTop;
+        if (y < top || y >= top + frontView.getHeight()) {
+            return null;
+        }
+        if (translation > 0) {
+            int stripLeft = frontLeft;
+            if (x < stripLeft || x >= stripLeft + translation) {
+                return null;
+            }
+            int right = stripLeft;
+            for (int i = 0; i < actions.length - 1; i++) {
+                right += actions[i].getWidth();
+                if (x < right) {
+                    return actions[i];
+                }
+            }
+        } else {
+            int stripRight = frontLeft + frontView.getWidth();
+            if (x >= stripRight || x < stripRight + translation) {
+                return null;
+            }
+            int left = stripRight;
+            for (int i = 0; i < actions.length - 1; i++) {
+                left -= actions[i].getWidth();
+                if (x >= left) {
+                    return actions[i];
+                }
+            }
+        }
+        return actions[actions.length - 1];
+    }
+
+    /**
+     * Finds the layout position of the front view in the list, adding the offsets of every parent
+     * up to the row, so the front view does not need to be a direct child of the row
+     * @param rowView row view, child of the list
+     * @param frontView front view, anywhere inside the row
+     */
+    private void locateFrontView(View rowView, View frontView) {
+        int left = frontView.getLeft();
+        int top = frontView.getTop();
+        View view = frontView;
+        while (view != rowView && view.getParent() instanceof View) {
+            View parent = (View) view.getParent();
+            left += parent.getLeft() - parent.getScrollX();
+            top += parent.getTop() - parent.getScrollY();
+            view = parent;
+        }
+        frontLeft = left;
+        frontTop = top;
+    }
+
+    private void drawAction(Canvas canvas, SwipeBackAction action, int left, int top, int right, int bottom) {
+        backgroundPaint.setColor(action.getColor());
+        canvas.drawRect(left, top, right, bottom, backgroundPaint);
+
+        float centerX = (left + right) / 2f;
+        float centerY = (top + bottom) / 2f;
+        Drawable icon = action.getIcon();
+        String label = action.getLabel();
+        if (label != null) {
+            labelPaint.setColor(action.getLabelColor());
+            labelPaint.setTextSize(action.getLabelSize() > 0 ? action.getLabelSize() : defaultLabelSize);
+        }
+        if (icon != null) {
+            int iconWidth = icon.getIntrinsicWidth();
+            int iconHeight = icon.getIntrinsicHeight();
+            int iconTop = (int) (label != null ? centerY - (iconHeight + labelPaint.descent() - labelPaint.ascent()) / 2 : centerY - iconHeight / 2f);
+            int iconLeft = (int) (centerX - iconWidth / 2f);
+            icon.setBounds(iconLeft, iconTop, iconLeft + iconWidth, iconTop + iconHeight);
+            icon.draw(canvas);
+            if (label != null) {
+                canvas.drawText(label, centerX, iconTop + iconHeight - labelPaint.ascent(), labelPaint);
+            }
+        } else if (label != null) {
+            canvas.drawText(label, centerX, centerY - (labelPaint.descent() + labelPaint.ascent()) / 2, labelPaint);
+        }
+    }
+
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+import android.widget.ListAdapter;
+
+import java.util.Arrays;
+
+/**
+ * Checked rows of a SwipeListView, as a bitset indexed by position. Lookups are a single word read,
+ * ranges are changed a word at a time. Adapters with stable ids also get the ids of the checked rows
+ * recorded, so the bitset is rebuilt for the new positions when the data changes
+ */
+class SwipeCheckedSet {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private long[] words = new long[1];
+    private int checkedCount;
+
+    private ListAdapter idAdapter;
+    private long[] ids = new long[8];
+    private int idCount;
+
+    /**
+     * Unchecks every row and sets the adapter the rows belong to
+     * @param adapter adapter, its ids are recorded if they are stable
+     */
+    void reset(ListAdapter adapter) {
+        clear();
+        idAdapter = adapter != null && adapter.hasStableIds() ? adapter : null;
+    }
+
+    /**
+     * @param position row position
+     * @return true if the row is checked
+     */
+    boolean isChecked(int position) {
+        int index = position >>> 6;
+        return index < words.length && (words[index] & (1L << position)) != 0;
+    }
+
+    /**
+     * @return number of checked rows
+     */
+    int size() {
+        return checkedCount;
+    }
+
+    /**
+     * Checks or unchecks the rows from fromPosition, inclusive, to toPosition, exclusive
+     * @param fromPosition first row
+     * @param toPosition row after the last one
+     * @param checked new state
+     * @return positions whose state changed, in ascending order
+     */
+    int[] setRange(int fromPosition, int toPosition, boolean checked) {
+        if (fromPosition >= toPosition) {
+            return NO_POSITIONS;
+        }
+        ensureCapacity(toPosition - 1);
+        int firstWord = fromPosition >>> 6;
+        int lastWord = (toPosition - 1) >>> 6;
+        int changed = 0;
+        for (int i = firstWord; i <= lastWord; i++) {
+            changed += Long.bitCount(changedBits(i, firstWord, lastWord, fromPosition, toPosition, checked));
+        }
+        if (changed == 0) {
+            return NO_POSITIONS;
+        }
+        int[] positions = new int[changed];
+        int n = 0;
+        for (int i = firstWord; i <= lastWord; i++) {
+            long bits = changedBits(i, firstWord, lastWord, fromPosition, toPosition, checked);
+            words[i] ^= bits;
+            while (bits != 0) {
+                positions[n++] = (i << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        checkedCount += checked ? changed : -changed;
+        if (idAdapter != null) {
+            if (changed == 1) {
+                if (checked) {
+                    addId(idAdapter.getItemId(positions[0]));
+                } else {
+                    removeId(idAdapter.getItemId(positions[0]));
+                }
+            } else {
+                rebuildIds();
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * @return checked positions, in ascending order
+     */
+    int[] getPositions() {
+        int[] positions = new int[checkedCount];
+        int n = 0;
+        for (int i = 0; i < words.length && n < checkedCount; i++) {
+            long bits = words[i];
+            while (bits != 0) {
+                positions[n++] = (i << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Encodes the checked rows as runs of consecutive positions
+     * @return start position and length of each run
+     */
+    int[] getRuns() {
+        int[] runs = new int[8];
+        int n = 0;
+        int position = nextSetBit(0);
+        while (position >= 0) {
+            int end = nextClearBit(position);
+            if (n == runs.length) {
+                runs = Arrays.copyOf(runs, n * 2);
+            }
+            runs[n++] = position;
+            runs[n++] = end - position;
+            position = nextSetBit(end);
+        }
+        return Arrays.copyOf(runs, n);
+    }
+
+    /**
+     * @return ids of the checked rows in ascending order, null if the adapter ids are not stable
+     */
+    long[] getIds() {
+        return idAdapter != null ? Arrays.copyOf(ids, idCount) : null;
+    }
+
+    /**
+     * Replaces the checked rows with saved ones, without notifying them
+     * @param runs start position and length of each run, from getRuns
+     * @param savedIds ids from getIds, used to follow the rows on the next data change
+     */
+    void restore(int[] runs, long[] savedIds) {
+        clear();
+        for (int i = 0; i + 1 < runs.length; i += 2) {
+            int fromPosition = runs[i];
+            int toPosition = fromPosition + runs[i + 1];
+            ensureCapacity(toPosition - 1);
+            int firstWord = fromPosition >>> 6;
+            int lastWord = (toPosition - 1) >>> 6;
+            for (int j = firstWord; j <= lastWord; j++) {
+                long bits = changedBits(j, firstWord, lastWord, fromPosition, toPosition, true);
+                words[j] |= bits;
+                checkedCount += Long.bitCount(bits);
+            }
+        }
+        if (idAdapter != null && savedIds != null) {
+            ids = Arrays.copyOf(savedIds, Math.max(8, savedIds.length));
+            idCount = savedIds.length;
+        }
+    }
+
+    /**
+     * Unchecks every row
+     */
+    void clear() {
+        Arrays.fill(words, 0);
+        checkedCount = 0;
+        idCount = 0;
+    }
+
+    /**
+     * Follows the rows to their new positions after the data changed. The checked positions are checked
+     * against their ids first, so the adapter is only searched when a checked row actually moved.
+     * Rows no longer in the adapter are dropped, so they are not searched again on the next change
+     * @param count number of rows of the adapter
+     */
+    void onDataChanged(int count) {
+        if (idAdapter == null) {
+            truncate(count);
+            return;
+        }
+        if (idCount == 0 || (checkedCount == idCount && positionsMatchIds(count))) {
+            return;
+        }
+        Arrays.fill(words, 0);
+        checkedCount = 0;
+        long[] previousIds = ids;
+        int previousIdCount = idCount;
+        ids = new long[previousIds.length];
+        idCount = 0;
+        for (int position = 0; position < count && idCount < previousIdCount; position++) {
+            long id = idAdapter.getItemId(position);
+            if (Arrays.binarySearch(previousIds, 0, previousIdCount, id) >= 0) {
+                ensureCapacity(position);
+                words[position >>> 6] |= 1L << position;
+                checkedCount++;
+                addId(id);
+            }
+        }
+    }
+
+    /**
+     * Remaps positions after some rows were removed from the adapter. Removed rows are unchecked
+     * and the following ones are shifted. It must be called before the adapter removes the rows,
+     * while their ids can still be read
+     * @param reverseSortedPositions removed positions sorted by descending position
+     */
+    void removePositions(int[] reverseSortedPositions) {
+        for (int position : reverseSortedPositions) {
+            int index = position >>> 6;
+            if (index >= words.length) {
+                continue;
+            }
+            if (isChecked(position)) {
+                checkedCount--;
+                if (idAdapter != null) {
+                    removeId(idAdapter.getItemId(position));
+                }
+            }
+            long word = words[index];
+            long below = word & ((1L << position) - 1);
+            long above = (word >>> 1) & (-1L << position);
+            words[index] = below | above | (index + 1 < words.length ? words[index + 1] << 63 : 0);
+            for (int i = index + 1; i < words.length; i++) {
+                words[i] = (words[i] >>> 1) | (i + 1 < words.length ? words[i + 1] << 63 : 0);
+            }
+        }
+    }
+
+    /**
+     * Unchecks rows about to be removed without shifting the following ones, which keep their positions
+     * until the data change is reported. It must be called while the ids of the rows can still be read
+     * @param positions positions of the rows
+     */
+    void uncheck(int[] positions) {
+        for (int position : positions) {
+            if (isChecked(position)) {
+                words[position >>> 6] &= ~(1L << position);
+                checkedCount--;
+                if (idAdapter != null) {
+                    removeId(idAdapter.getItemId(position));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param count number of rows of the adapter
+     * @return true if every checked position still holds one of the checked ids
+     */
+    private boolean positionsMatchIds(int count) {
+        for (int i = 0; i < words.length; i++) {
+            long bits = words[i];
+            while (bits != 0) {
+                int position = (i << 6) + Long.numberOfTrailingZeros(bits);
+                if (position >= count || Arrays.binarySearch(ids, 0, idCount, idAdapter.getItemId(position)) < 0) {
+                    return false;
+                }
+                bits &= bits - 1;
+            }
+        }
+        return true;
+    }
+
+    private void truncate(int limit) {
+        int index = limit >>> 6;
+        if (index >= words.length) {
+            return;
+        }
+        words[index] &= (1L << limit) - 1;
+        for (int i = index + 1; i < words.length; i++) {
+            words[i] = 0;
+        }
+        checkedCount = 0;
+        for (long word : words) {
+            checkedCount += Long.bitCount(word);
+        }
+    }
+
+    private long changedBits(int index, int firstWord, int lastWord, int fromPosition, int toPosition, boolean checked) {
+        long mask = -1L;
+        if (index == firstWord) {
+            mask &= -1L << fromPosition;
+        }
+        if (index == lastWord) {
+            mask &= -1L >>> -toPosition;
+        }
+        return (checked ? ~words[index] : words[index]) & mask;
+    }
+
+    private int nextSetBit(int fromPosition) {
+        int index = fromPosition >>> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << fromPosition);
+        while (word == 0) {
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+        return (index << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private int nextClearBit(int fromPosition) {
+        int index = fromPosition >>> 6;
+        if (index >= words.length) {
+            return fromPosition;
+        }
+        long word = ~words[index] & (-1L << fromPosition);
+        while (word == 0) {
+            if (++index == words.length) {
+                return index << 6;
+            }
+            word = ~words[index];
+        }
+        return (index << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private void ensureCapacity(int position) {
+        int index = position >>> 6;
+        if (index >= words.length) {
+            words = Arrays.copyOf(words, Math.max(words.length * 2, index + 1));
+        }
+    }
+
+    /**
+     * Collects the ids of every checked row at once, cheaper than inserting them one by one for big ranges
+     */
+    private void rebuildIds() {
+        if (ids.length < checkedCount) {
+            ids = new long[checkedCount];
+        }
+        idCount = 0;
+        for (int i = 0; i < words.length && idCount < checkedCount; i++) {
+            long bits = words[i];
+            while (bits != 0) {
+                ids[idCount++] = idAdapter.getItemId((i << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        Arrays.sort(ids, 0, idCount);
+    }
+
+    private void addId(long id) {
+        int index = Arrays.binarySearch(ids, 0, idCount, id);
+        if (index >= 0) {
+            return;
+        }
+        index = ~index;
+        if (idCount == ids.length) {
+            ids = Arrays.copyOf(ids, idCount * 2);
+        }
+        System.arraycopy(ids, index, ids, index + 1, idCount - index);
+        ids[index] = id;
+        idCount++;
+    }
+
+    private void removeId(long id) {
+        int index = Arrays.binarySearch(ids, 0, idCount, id);
+        if (index >= 0) {
+            System.arraycopy(ids, index + 1, ids, index, idCount - index - 1);
+            idCount--;
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers the swipe events of a SwipeListView on an Executor. Events are recorded in a lock-free queue
+ * on the UI thread, and a single task drains every queued event in order, so events ending on the same
+ * frame are delivered in one batch
+ */
+class SwipeEventDispatcher implements Runnable {
+
+    private static final int EVENT_OPENED = 0;
+    private static final int EVENT_CLOSED = 1;
+    private static final int EVENT_CLICK_FRONT_VIEW = 2;
+    private static final int EVENT_CLICK_BACK_VIEW = 3;
+    private static final int EVENT_DISMISS = 4;
+    private static final int EVENT_CHECKED = 5;
+    private static final int EVENT_CLICK_BACK_ACTION = 6;
+
+    /**
+     * Recorded event
+     */
+    private static final class Event {
+        final int type;
+        final int position;
+        final boolean right;
+        final int[] positions;
+        final int actionId;
+
+        Event(int type, int position, boolean right, int[] positions) {
+            this(type, position, right, positions, 0);
+        }
+
+        Event(int type, int position, boolean right, int[] positions, int actionId) {
+            this.type = type;
+            this.position = position;
+            this.right = right;
+            this.positions = positions;
+            this.actionId = actionId;
+        }
+    }
+
+    private final Executor executor;
+    private final SwipeListenerRegistry listener;
+    private final ConcurrentLinkedQueue<Event> events = new ConcurrentLinkedQueue<Event>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Constructor
+     * @param executor executor running the listener
+     * @param listener listener receiving the events
+     */
+    SwipeEventDispatcher(Executor executor, SwipeListenerRegistry listener) {
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    void postOpened(int position, boolean toRight) {
+        post(new Event(EVENT_OPENED, position, toRight, null));
+    }
+
+    void postClosed(int position, boolean fromRight) {
+        post(new Event(EVENT_CLOSED, position, fromRight, null));
+    }
+
+    void postClickFrontView(int position) {
+        post(new Event(EVENT_CLICK_FRONT_VIEW, position, false, null));
+    }
+
+    void postClickBackView(int position) {
+        post(new Event(EVENT_CLICK_BACK_VIEW, position, false, null));
+    }
+
+    void postClickBackAction(int position, int actionId) {
+        post(new Event(EVENT_CLICK_BACK_ACTION, position, false, null, actionId));
+    }
+
+    void postDismiss(int[] reverseSortedPositions) {
+        post(new Event(EVENT_DISMISS, -1, false, reverseSortedPositions));
+    }
+
+    void postChecked(int[] positions, boolean checked) {
+        post(new Event(EVENT_CHECKED, -1, checked, positions));
+    }
+
+    private void post(Event event) {
+        events.offer(event);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+
+    /**
+     * Delivers every queued event. Only one drain runs at a time, so events keep their order
+     * even on a pooled executor
+     * @see Runnable#run()
+     */
+    @Override
+    public void run() {
+        do {
+            drain();
+            scheduled.set(false);
+        } while (!events.isEmpty() && scheduled.compareAndSet(false, true));
+    }
+
+    private void drain() {
+        Event event;
+        while ((event = events.poll()) != null) {
+            switch (event.type) {
+                case EVENT_OPENED:
+                    listener.onOpened(event.position, event.right);
+                    break;
+                case EVENT_CLOSED:
+                    listener.onClosed(event.position, event.right);
+                    break;
+                case EVENT_CLICK_FRONT_VIEW:
+                    listener.onClickFrontView(event.position);
+                    break;
+                case EVENT_CLICK_BACK_VIEW:
+                    listener.onClickBackView(event.position);
+                    break;
+                case EVENT_CLICK_BACK_ACTION:
+                    listener.onClickBackAction(event.position, event.actionId);
+                    break;
+                case EVENT_DISMISS:
+                    listener.onDismiss(event.positions);
+                    break;
+                case EVENT_CHECKED:
+                    listener.onChecked(event.positions, event.right);
+                    break;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+/**
+ * Swipe gesture state machine. It decides from primitive event samples whether a gesture is a swipe,
+ * which action it performs and how it ends. It has no Android dependencies, so it can be measured
+ * off-device; SwipeListViewTouchListener feeds it and applies the results to the views
+ */
+class SwipeGesture {
+
+    // Same values as the SwipeListView constants, kept here so this class does not load Android classes
+    static final int SWIPE_MODE_NONE = 0;
+    static final int SWIPE_MODE_BOTH = 1;
+    static final int SWIPE_MODE_RIGHT = 2;
+    static final int SWIPE_MODE_LEFT = 3;
+
+    static final int SWIPE_ACTION_REVEAL = 0;
+    static final int SWIPE_ACTION_DISMISS = 1;
+    static final int SWIPE_ACTION_CHECK = 2;
+    static final int SWIPE_ACTION_NONE = 3;
+
+    /**
+     * Indicates no movement
+     */
+    static final int TOUCH_STATE_REST = 0;
+
+    /**
+     * State scrolling x position
+     */
+    static final int TOUCH_STATE_SCROLLING_X = 1;
+
+    /**
+     * State scrolling y position
+     */
+    static final int TOUCH_STATE_SCROLLING_Y = 2;
+
+    /**
+     * The move is not part of a swipe
+     */
+    static final int MOVE_IGNORED = 0;
+
+    /**
+     * The swipe starts with this move
+     */
+    static final int MOVE_STARTED = 1;
+
+    /**
+     * The move continues a swipe
+     */
+    static final int MOVE_SWIPING = 2;
+
+    private final int slop;
+    private final int pagingTouchSlop;
+    private final int minFlingVelocity;
+    private final int maxFlingVelocity;
+
+    private int swipeMode = SWIPE_MODE_BOTH;
+    private int swipeActionLeft = SWIPE_ACTION_REVEAL;
+    private int swipeActionRight = SWIPE_ACTION_REVEAL;
+    private int viewWidth = 1; // 1 and not 0 to prevent dividing by zero
+    private float leftOffset = 0;
+    private float rightOffset = 0;
+    private boolean enabled = true;
+
+    private int touchState = TOUCH_STATE_REST;
+    private float lastMotionX;
+    private float lastMotionY;
+
+    private boolean tracking;
+    private boolean swiping;
+    private float downX;
+    private boolean downOpened;
+    private boolean downOpenedRight;
+    private int swipeCurrentAction = SWIPE_ACTION_NONE;
+    private float translation;
+    private boolean swap;
+    private boolean swapRight;
+
+    /**
+     * Constructor
+     * @param slop touch slop to start a swipe
+     * @param pagingTouchSlop touch slop to decide the list is scrolling
+     * @param minFlingVelocity minimum fling velocity
+     * @param maxFlingVelocity maximum fling velocity
+     */
+    SwipeGesture(int slop, int pagingTouchSlop, int minFlingVelocity, int maxFlingVelocity) {
+        this.slop = slop;
+        this.pagingTouchSlop = pagingTouchSlop;
+        this.minFlingVelocity = minFlingVelocity;
+        this.maxFlingVelocity = maxFlingVelocity;
+    }
+
+    int getSwipeMode() {
+        return swipeMode;
+    }
+
+    void setSwipeMode(int swipeMode) {
+        this.swipeMode = swipeMode;
+    }
+
+    int getSwipeActionLeft() {
+        return swipeActionLeft;
+    }
+
+    void setSwipeActionLeft(int swipeActionLeft) {
+        this.swipeActionLeft = swipeActionLeft;
+    }
+
+    int getSwipeActionRight() {
+        return swipeActionRight;
+    }
+
+    void setSwipeActionRight(int swipeActionRight) {
+        this.swipeActionRight = swipeActionRight;
+    }
+
+    void setViewWidth(int viewWidth) {
+        this.viewWidth = Math.max(1, viewWidth);
+    }
+
+    void setLeftOffset(float leftOffset) {
+        this.leftOffset = leftOffset;
+    }
+
+    void setRightOffset(float rightOffset) {
+        this.rightOffset = rightOffset;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts a gesture
+     * @param rawX X in screen coordinates
+     * @param x X in list coordinates
+     * @param y Y in list coordinates
+     * @return true if swipes are enabled and the caller should look for the touched row
+     */
+    boolean down(float rawX, float x, float y) {
+        touchState = TOUCH_STATE_REST;
+        lastMotionX = x;
+        lastMotionY = y;
+        tracking = false;
+        swiping = false;
+        swipeCurrentAction = SWIPE_ACTION_NONE;
+        downX = rawX;
+        return enabled;
+    }
+
+    /**
+     * Tracks the row touched by the current gesture
+     * @param opened If the row is opened
+     * @param openedRight If the row is opened toward the right
+     */
+    void track(boolean opened, boolean openedRight) {
+        tracking = true;
+        downOpened = opened;
+        downOpenedRight = openedRight;
+    }
+
+    /**
+     * Tracks the row touched by the current gesture from the swipe state of its item
+     * @param swipeStates swipe state of the items
+     * @param key Key of the touched item
+     * @return true if the row is opened
+     */
+    boolean track(SwipeStateStore swipeStates, long key) {
+        int state = swipeStates.getFlags(key);
+        track((state & SwipeStateStore.FLAG_OPENED) != 0, (state & SwipeStateStore.FLAG_OPENED_RIGHT) != 0);
+        return downOpened;
+    }
+
+    /**
+     * Processes a move
+     * @param rawX X in screen coordinates
+     * @param x X in list coordinates
+     * @param y Y in list coordinates
+     * @param velocityX current X velocity in pixels per second
+     * @param velocityY current Y velocity in pixels per second
+     * @return MOVE_IGNORED, MOVE_STARTED or MOVE_SWIPING
+     */
+    int move(float rawX, float x, float y, float velocityX, float velocityY) {
+        if (touchState == TOUCH_STATE_REST) {
+            checkInMoving(x, y);
+        }
+        if (!tracking || !enabled) {
+            return MOVE_IGNORED;
+        }
+
+        velocityX = Math.abs(velocityX);
+        velocityY = Math.abs(velocityY);
+        float deltaX = rawX - downX;
+        float deltaMode = Math.abs(deltaX);
+        if (swipeMode == SWIPE_MODE_NONE) {
+            deltaMode = 0;
+        } else if (swipeMode != SWIPE_MODE_BOTH) {
+            if (downOpened) {
+                if (swipeMode == SWIPE_MODE_LEFT && deltaX < 0) {
+                    deltaMode = 0;
+                } else if (swipeMode == SWIPE_MODE_RIGHT && deltaX > 0) {
+                    deltaMode = 0;
+                }
+            } else {
+                if (swipeMode == SWIPE_MODE_LEFT && deltaX > 0) {
+                    deltaMode = 0;
+                } else if (swipeMode == SWIPE_MODE_RIGHT && deltaX < 0) {
+                    deltaMode = 0;
+                }
+            }
+        }
+
+        int result = MOVE_IGNORED;
+        if (deltaMode > slop && swipeCurrentAction == SWIPE_ACTION_NONE
+                && touchState != TOUCH_STATE_SCROLLING_Y && velocityY < velocityX) {
+            swiping = true;
+            touchState = TOUCH_STATE_SCROLLING_X;
+            swipeCurrentAction = resolveAction(deltaX > 0);
+            result = MOVE_STARTED;
+        } else if (swiping) {
+            result = MOVE_SWIPING;
+        }
+
+        if (swiping) {
+            if (downOpened) {
+                deltaX += downOpenedRight ? viewWidth - rightOffset : -viewWidth + leftOffset;
+            }
+            translation = deltaX;
+        }
+        return result;
+    }
+
+    /**
+     * Ends the gesture
+     * @param rawX X in screen coordinates
+     * @param velocityX X velocity at release in pixels per second
+     * @param velocityY Y velocity at release in pixels per second
+     * @return true if the gesture was a swipe. isSwap and isSwapRight tell how it ends
+     */
+    boolean up(float rawX, float velocityX, float velocityY) {
+        boolean wasSwiping = tracking && swiping;
+        swap = false;
+        swapRight = false;
+        if (wasSwiping) {
+            float deltaX = rawX - downX;
+            float absVelocityX = Math.abs(velocityX);
+            if (!downOpened) {
+                if (swipeMode == SWIPE_MODE_LEFT && velocityX > 0) {
+                    absVelocityX = 0;
+                }
+                if (swipeMode == SWIPE_MODE_RIGHT && velocityX < 0) {
+                    absVelocityX = 0;
+                }
+            }
+            float absVelocityY = Math.abs(velocityY);
+            if (minFlingVelocity <= absVelocityX && absVelocityX <= maxFlingVelocity && absVelocityY < absVelocityX) {
+                swapRight = velocityX > 0;
+                if (downOpened && downOpenedRight && swapRight) {
+                    swap = false;
+                } else if (downOpened && !downOpenedRight && !swapRight) {
+                    swap = false;
+                } else {
+                    swap = true;
+                }
+            } else if (Math.abs(deltaX) > viewWidth / 2) {
+                swap = true;
+                swapRight = deltaX > 0;
+            }
+        }
+        tracking = false;
+        swiping = false;
+        return wasSwiping;
+    }
+
+    /**
+     * Cancels the gesture
+     * @return true if a swipe was in progress and the row must return to its previous state
+     */
+    boolean cancel() {
+        boolean wasSwiping = tracking && swiping;
+        touchState = TOUCH_STATE_REST;
+        tracking = false;
+        swiping = false;
+        swap = false;
+        return wasSwiping;
+    }
+
+    /**
+     * @return true while a row is tracked by the current gesture
+     */
+    boolean isTracking() {
+        return tracking;
+    }
+
+    /**
+     * @return true while the current gesture is a swipe
+     */
+    boolean isSwiping() {
+        return swiping;
+    }
+
+    /**
+     * @return translation of the swiped view for the last move
+     */
+    float getTranslation() {
+        return translation;
+    }
+
+    /**
+     * @return action of the current swipe
+     */
+    int getSwipeCurrentAction() {
+        return swipeCurrentAction;
+    }
+
+    /**
+     * @return true if the row touched by the current gesture was opened when it started
+     */
+    boolean isDownOpened() {
+        return downOpened;
+    }
+
+    /**
+     * @return true if the last swipe changes the state of the row
+     */
+    boolean isSwap() {
+        return swap;
+    }
+
+    /**
+     * @return if isSwap, true if the row moves toward the right
+     */
+    boolean isSwapRight() {
+        return swapRight;
+    }
+
+    /**
+     * @return true if the current gesture has not moved past the paging touch slop
+     */
+    boolean isTap() {
+        return touchState == TOUCH_STATE_REST;
+    }
+
+    /**
+     * @return true if the current gesture scrolls the list vertically
+     */
+    boolean isScrollingY() {
+        return touchState == TOUCH_STATE_SCROLLING_Y;
+    }
+
+    /**
+     * Resets scrolling
+     */
+    void resetScrolling() {
+        touchState = TOUCH_STATE_REST;
+    }
+
+    private int resolveAction(boolean swipingRight) {
+        if (downOpened) {
+            return SWIPE_ACTION_REVEAL;
+        }
+        int action = swipingRight ? swipeActionRight : swipeActionLeft;
+        if (action == SWIPE_ACTION_DISMISS || action == SWIPE_ACTION_CHECK) {
+            return action;
+        }
+        return SWIPE_ACTION_REVEAL;
+    }
+
+    /**
+     * Check if the user is scrolling the list, using the paging touch slop
+     *
+     * @param x Position X
+     * @param y Position Y
+     */
+    private void checkInMoving(float x, float y) {
+        final int xDiff = (int) Math.abs(x - lastMotionX);
+        final int yDiff = (int) Math.abs(y - lastMotionY);
+
+        final int touchSlop = this.pagingTouchSlop;
+        boolean xMoved = xDiff > touchSlop;
+        boolean yMoved = yDiff > touchSlop;
+
+        if (xMoved) {
+            touchState = TOUCH_STATE_SCROLLING_X;
+            lastMotionX = x;
+            lastMotionY = y;
+        }
+
+        if (yMoved) {
+            touchState = TOUCH_STATE_SCROLLING_Y;
+            lastMotionX = x;
+            lastMotionY = y;
+        }
+    }
+
+}
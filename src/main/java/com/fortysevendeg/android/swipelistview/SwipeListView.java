@@ -21,14 +21,19 @@ package com.fortysevendeg.android.swipelistview;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
+import android.graphics.Canvas;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.v4.view.MotionEventCompat;
-import android.support.v4.view.ViewConfigurationCompat;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
-import android.view.ViewConfiguration;
+import android.view.View;
+import android.widget.AbsListView;
 import android.widget.ListAdapter;
 import android.widget.ListView;
 
+import java.util.concurrent.Executor;
+
 /**
  * ListView subclass that provides the swipe functionality
  */
@@ -75,36 +80,149 @@ public class SwipeListView extends ListView {
     public final static int SWIPE_ACTION_NONE = 3;
 
     /**
-     * Indicates no movement
+     * Dismissed rows collapse by animating their height, laying out the list on every frame
+     */
+    public final static int SWIPE_DISMISS_COLLAPSE_LAYOUT = 0;
+
+    /**
+     * Rows below the dismissed rows are translated up, the list is laid out once when the animation ends
+     */
+    public final static int SWIPE_DISMISS_COLLAPSE_TRANSLATE = 1;
+
+    /**
+     * Settle animations always last swipeAnimationTime
+     */
+    public final static int SWIPE_SETTLE_FIXED = 0;
+
+    /**
+     * Settle animations take their duration from the release velocity and the remaining distance
+     */
+    public final static int SWIPE_SETTLE_VELOCITY = 1;
+
+    /**
+     * Rows are never promoted to hardware layers
      */
-    private final static int TOUCH_STATE_REST = 0;
+    public final static int SWIPE_LAYER_NONE = 0;
 
     /**
-     * State scrolling x position
+     * Rows are promoted to a hardware layer while their settle or dismiss animation runs
      */
-    private final static int TOUCH_STATE_SCROLLING_X = 1;
+    public final static int SWIPE_LAYER_ANIMATION = 1;
 
     /**
-     * State scrolling y position
+     * Rows are promoted to a hardware layer from the start of the swipe to the end of its animation
      */
-    private final static int TOUCH_STATE_SCROLLING_Y = 2;
+    public final static int SWIPE_LAYER_GESTURE = 2;
 
-    private int touchState = TOUCH_STATE_REST;
+    /**
+     * Receives onOpened
+     */
+    public final static int EVENT_OPENED = 1;
 
-    private float lastMotionX;
-    private float lastMotionY;
-    private int touchSlop;
+    /**
+     * Receives onClosed
+     */
+    public final static int EVENT_CLOSED = 1 << 1;
 
     /**
-     * Internal listener for common swipe events
+     * Receives onListChanged
+     */
+    public final static int EVENT_LIST_CHANGED = 1 << 2;
+
+    /**
+     * Receives onMove, called on every move of a swipe
+     */
+    public final static int EVENT_MOVE = 1 << 3;
+
+    /**
+     * Receives onClickFrontView
+     */
+    public final static int EVENT_CLICK_FRONT_VIEW = 1 << 4;
+
+    /**
+     * Receives onClickBackView
+     */
+    public final static int EVENT_CLICK_BACK_VIEW = 1 << 5;
+
+    /**
+     * Receives onDismiss
+     */
+    public final static int EVENT_DISMISS = 1 << 6;
+
+    /**
+     * Receives onChecked, for listeners implementing SwipeListViewCheckListener
+     */
+    public final static int EVENT_CHECKED = 1 << 7;
+
+    /**
+     * Receives onClickBackAction, for listeners implementing SwipeListViewBackActionListener
+     */
+    public final static int EVENT_CLICK_BACK_ACTION = 1 << 8;
+
+    /**
+     * Receives every event
+     */
+    public final static int EVENT_ALL = EVENT_OPENED | EVENT_CLOSED | EVENT_LIST_CHANGED | EVENT_MOVE
+            | EVENT_CLICK_FRONT_VIEW | EVENT_CLICK_BACK_VIEW | EVENT_DISMISS | EVENT_CHECKED | EVENT_CLICK_BACK_ACTION;
+
+    /**
+     * Receives every event except onMove
+     */
+    public final static int EVENT_ALL_BUT_MOVE = EVENT_ALL & ~EVENT_MOVE;
+
+    /**
+     * Listener set with setSwipeListViewListener
      */
     private SwipeListViewListener swipeListViewListener;
 
+    /**
+     * Every registered listener
+     */
+    private final SwipeListenerRegistry listeners = new SwipeListenerRegistry();
+
+    /**
+     * Delivers events on the executor set by the user, null to deliver them synchronously
+     */
+    private SwipeEventDispatcher eventDispatcher;
+
     /**
      * Internal touch listener
      */
     private SwipeListViewTouchListener touchListener;
 
+    /**
+     * Engine that runs every row animation
+     */
+    private SwipeAnimationEngine animationEngine;
+
+    /**
+     * Scroll listener set by the user, called after the internal one
+     */
+    private AbsListView.OnScrollListener onScrollListener;
+
+    /**
+     * Adapter being observed for data changes
+     */
+    private ListAdapter observedAdapter;
+
+    /**
+     * Observer that keeps the swipe state in sync with the adapter
+     */
+    private final DataSetObserver dataSetObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            super.onChanged();
+            onListChanged();
+            touchListener.resetItems();
+        }
+
+        @Override
+        public void onInvalidated() {
+            super.onInvalidated();
+            touchListener.resetAdapter();
+        }
+    };
+
     /**
      * @see ListView#ListView(android.content.Context)
      */
@@ -139,14 +257,20 @@ public class SwipeListView extends ListView {
         int swipeMode = SWIPE_MODE_BOTH;
         boolean swipeOpenOnLongPress = true;
         boolean swipeCloseAllItemsWhenMoveList = true;
+        boolean swipeCoalesceMoves = false;
         int swipeFrontView = 0;
         int swipeBackView = 0;
         long swipeAnimationTime = 0;
+        int swipeSettleMode = SWIPE_SETTLE_FIXED;
+        int swipeLayerPolicy = SWIPE_LAYER_NONE;
         float swipeOffsetLeft = 0;
         float swipeOffsetRight = 0;
 
         int swipeActionLeft = SWIPE_ACTION_REVEAL;
         int swipeActionRight = SWIPE_ACTION_REVEAL;
+        int swipeDismissCollapse = SWIPE_DISMISS_COLLAPSE_LAYOUT;
+        long swipeDismissCommitDelay = 0;
+        int swipeBulkAnimationsPerFrame = 0;
 
         if (attrs != null) {
             TypedArray styled = getContext().obtainStyledAttributes(attrs, R.styleable.SwipeListView);
@@ -157,30 +281,67 @@ public class SwipeListView extends ListView {
             swipeOffsetRight = styled.getDimension(R.styleable.SwipeListView_swipeOffsetRight, 0);
             swipeOpenOnLongPress = styled.getBoolean(R.styleable.SwipeListView_swipeOpenOnLongPress, true);
             swipeAnimationTime = styled.getInteger(R.styleable.SwipeListView_swipeAnimationTime, 0);
+            swipeSettleMode = styled.getInt(R.styleable.SwipeListView_swipeSettleMode, SWIPE_SETTLE_FIXED);
+            swipeLayerPolicy = styled.getInt(R.styleable.SwipeListView_swipeLayerPolicy, SWIPE_LAYER_NONE);
             swipeCloseAllItemsWhenMoveList = styled.getBoolean(R.styleable.SwipeListView_swipeCloseAllItemsWhenMoveList, true);
+            swipeCoalesceMoves = styled.getBoolean(R.styleable.SwipeListView_swipeCoalesceMoves, false);
             swipeFrontView = styled.getResourceId(R.styleable.SwipeListView_swipeFrontView, 0);
             swipeBackView = styled.getResourceId(R.styleable.SwipeListView_swipeBackView, 0);
+            swipeDismissCollapse = styled.getInt(R.styleable.SwipeListView_swipeDismissCollapse, SWIPE_DISMISS_COLLAPSE_LAYOUT);
+            swipeDismissCommitDelay = styled.getInteger(R.styleable.SwipeListView_swipeDismissCommitDelay, 0);
+            swipeBulkAnimationsPerFrame = styled.getInteger(R.styleable.SwipeListView_swipeBulkAnimationsPerFrame, 0);
         }
 
-        if (swipeFrontView == 0 || swipeBackView == 0) {
-            throw new RuntimeException("Missed attribute swipeFrontView or swipeBackView");
+        if (swipeFrontView == 0) {
+            throw new RuntimeException("Missed attribute swipeFrontView");
         }
 
-        final ViewConfiguration configuration = ViewConfiguration.get(getContext());
-        touchSlop = ViewConfigurationCompat.getScaledPagingTouchSlop(configuration);
+        animationEngine = new SwipeAnimationEngine();
         touchListener = new SwipeListViewTouchListener(this, swipeFrontView, swipeBackView);
         if (swipeAnimationTime > 0) {
             touchListener.setAnimationTime(swipeAnimationTime);
         }
+        touchListener.setSwipeSettleMode(swipeSettleMode);
+        touchListener.setSwipeLayerPolicy(swipeLayerPolicy);
         touchListener.setRightOffset(swipeOffsetRight);
         touchListener.setLeftOffset(swipeOffsetLeft);
         touchListener.setSwipeActionLeft(swipeActionLeft);
         touchListener.setSwipeActionRight(swipeActionRight);
+        touchListener.setSwipeDismissCollapse(swipeDismissCollapse);
+        touchListener.setSwipeDismissCommitDelay(swipeDismissCommitDelay);
+        touchListener.setSwipeBulkAnimationsPerFrame(swipeBulkAnimationsPerFrame);
         touchListener.setSwipeMode(swipeMode);
         touchListener.setSwipeClosesAllItemsWhenListMoves(swipeCloseAllItemsWhenMoveList);
         touchListener.setSwipeOpenOnLongPress(swipeOpenOnLongPress);
-        setOnTouchListener(touchListener);
-        setOnScrollListener(touchListener.makeScrollListener());
+        touchListener.setSwipeCoalesceMoves(swipeCoalesceMoves);
+        final OnScrollListener swipeScrollListener = touchListener.makeScrollListener();
+        super.setOnScrollListener(new OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+                swipeScrollListener.onScrollStateChanged(view, scrollState);
+                if (onScrollListener != null) {
+                    onScrollListener.onScrollStateChanged(view, scrollState);
+                }
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                swipeScrollListener.onScroll(view, firstVisibleItem, visibleItemCount, totalItemCount);
+                if (onScrollListener != null) {
+                    onScrollListener.onScroll(view, firstVisibleItem, visibleItemCount, totalItemCount);
+                }
+            }
+        });
+    }
+
+    /**
+     * The listener is called after the internal one, which SwipeListView needs to track the list motion
+     *
+     * @see ListView#setOnScrollListener(android.widget.AbsListView.OnScrollListener)
+     */
+    @Override
+    public void setOnScrollListener(OnScrollListener onScrollListener) {
+        this.onScrollListener = onScrollListener;
     }
 
     /**
@@ -189,19 +350,18 @@ public class SwipeListView extends ListView {
     @Override
     public void setAdapter(ListAdapter adapter) {
         super.setAdapter(adapter);
-        touchListener.resetItems();
-        adapter.registerDataSetObserver(new DataSetObserver() {
-            @Override
-            public void onChanged() {
-                super.onChanged();
-                onListChanged();
-                touchListener.resetItems();
-            }
-        });
+        touchListener.resetAdapter();
+        if (observedAdapter != null) {
+            observedAdapter.unregisterDataSetObserver(dataSetObserver);
+        }
+        observedAdapter = adapter;
+        if (adapter != null) {
+            adapter.registerDataSetObserver(dataSetObserver);
+        }
     }
 
     /**
-     * Open ListView's item
+     * Open ListView's item. Items out of the screen open without animation nor onOpened when they are shown
      *
      * @param position Position that you want open
      */
@@ -210,7 +370,7 @@ public class SwipeListView extends ListView {
     }
 
     /**
-     * Close ListView's item
+     * Close ListView's item. Items out of the screen close without animation nor onClosed when they are shown
      *
      * @param position Position that you want open
      */
@@ -218,14 +378,196 @@ public class SwipeListView extends ListView {
         touchListener.closeAnimate(position);
     }
 
+    /**
+     * Close all ListView's items. Visible items are animated, swipeBulkAnimationsPerFrame at a time,
+     * the other items are closed without animation nor onClosed
+     */
+    public void closeAll() {
+        touchListener.closeAll();
+    }
+
+    /**
+     * Open all ListView's items. Visible items are animated, swipeBulkAnimationsPerFrame at a time,
+     * the other items are opened without animation nor onOpened
+     *
+     * @param toRight If should be opened toward the right
+     */
+    public void openAll(boolean toRight) {
+        touchListener.openAll(toRight);
+    }
+
+    /**
+     * Return how many animations closeAll and openAll start per frame
+     *
+     * @return Animations per frame, 0 to start all of them at once
+     */
+    public int getSwipeBulkAnimationsPerFrame() {
+        return touchListener.getSwipeBulkAnimationsPerFrame();
+    }
+
+    /**
+     * Set how many animations closeAll and openAll start per frame. setMaxConcurrentAnimations caps
+     * how many of them run at once
+     *
+     * @param swipeBulkAnimationsPerFrame Animations per frame, 0 to start all of them at once
+     */
+    public void setSwipeBulkAnimationsPerFrame(int swipeBulkAnimationsPerFrame) {
+        touchListener.setSwipeBulkAnimationsPerFrame(swipeBulkAnimationsPerFrame);
+    }
+
+    /**
+     * Dismiss ListView's items. Visible items are animated together, items out of the screen
+     * are dropped without animation, and all of them are notified in a single onDismiss
+     *
+     * @param positions Positions that you want dismiss
+     */
+    public void dismiss(int... positions) {
+        touchListener.dismiss(positions);
+    }
+
+    /**
+     * Return how long dismissed items are held before onDismiss
+     *
+     * @return Delay in milliseconds, 0 if dismisses are reported right away
+     */
+    public long getSwipeDismissCommitDelay() {
+        return touchListener.getSwipeDismissCommitDelay();
+    }
+
+    /**
+     * Set how long dismissed items are held hidden before onDismiss. Dismisses within the window
+     * are merged and reported in a single onDismiss, and undoDismiss brings them back until then.
+     * With stable ids the held items follow their rows through data changes; without them,
+     * any data change brings the held items back
+     *
+     * @param swipeDismissCommitDelay Delay in milliseconds, 0 to report dismisses right away
+     */
+    public void setSwipeDismissCommitDelay(long swipeDismissCommitDelay) {
+        touchListener.setSwipeDismissCommitDelay(swipeDismissCommitDelay);
+    }
+
+    /**
+     * Reports the held dismisses now instead of waiting for the commit window
+     *
+     * @return true if there were held dismisses
+     */
+    public boolean commitDismiss() {
+        return touchListener.commitDismiss();
+    }
+
+    /**
+     * Brings back the held dismissed items. onDismiss is not called for them
+     *
+     * @return true if there were held dismisses
+     */
+    public boolean undoDismiss() {
+        return touchListener.undoDismiss();
+    }
+
+    /**
+     * Return if an item is checked. It does not allocate, so it can be called from the adapter's getView
+     *
+     * @param position Position of list
+     * @return true if the item is checked
+     */
+    public boolean isChecked(int position) {
+        return touchListener.isChecked(position);
+    }
+
+    /**
+     * Check or uncheck an item. onChecked is called if its state changes
+     *
+     * @param position Position of list
+     * @param checked  New state
+     */
+    public void setChecked(int position, boolean checked) {
+        touchListener.setCheckedRange(position, position + 1, checked);
+    }
+
+    /**
+     * Check or uncheck a range of items. The items that change are reported in a single onChecked
+     *
+     * @param fromPosition First position, inclusive
+     * @param toPosition   Last position, exclusive
+     * @param checked      New state
+     */
+    public void setCheckedRange(int fromPosition, int toPosition, boolean checked) {
+        touchListener.setCheckedRange(fromPosition, toPosition, checked);
+    }
+
+    /**
+     * Uncheck all items. They are reported in a single onChecked
+     */
+    public void clearChecked() {
+        touchListener.clearChecked();
+    }
+
+    /**
+     * Return the number of checked items
+     *
+     * @return Number of checked items
+     */
+    public int getCheckedCount() {
+        return touchListener.getCheckedCount();
+    }
+
+    /**
+     * Return the checked positions
+     *
+     * @return Checked positions in ascending order
+     */
+    public int[] getCheckedPositions() {
+        return touchListener.getCheckedPositions();
+    }
+
+    /**
+     * Sets the Executor that runs onOpened, onClosed, onClickFrontView, onClickBackView, onClickBackAction,
+     * onDismiss and onChecked.
+     * Events are queued without locks and delivered in batches, in the order they happened.
+     * The swipe state of the list is already updated when an event is queued.
+     * onMove and onListChanged are always called on the UI thread.
+     * <p/>
+     * The adapter must still be changed on the UI thread: onDismiss has to post the removal back to it,
+     * followed by one notifyDataSetChanged. Until then the dismissed rows stay hidden and the swipe state
+     * of the following items stays in place
+     *
+     * @param executor Executor, null to call the listener synchronously on the UI thread
+     */
+    public void setSwipeEventExecutor(Executor executor) {
+        eventDispatcher = executor != null ? new SwipeEventDispatcher(executor, listeners) : null;
+    }
+
+    /**
+     * @return true if the listener events are delivered on an Executor
+     */
+    boolean hasSwipeEventExecutor() {
+        return eventDispatcher != null;
+    }
+
     /**
      * Notifies onDismiss
      *
      * @param reverseSortedPositions All dismissed positions
      */
     protected void onDismiss(int[] reverseSortedPositions) {
-        if (swipeListViewListener != null) {
-            swipeListViewListener.onDismiss(reverseSortedPositions);
+        if (eventDispatcher != null) {
+            eventDispatcher.postDismiss(reverseSortedPositions);
+        } else {
+            listeners.onDismiss(reverseSortedPositions);
+        }
+    }
+
+    /**
+     * Notifies onChecked
+     *
+     * @param positions Items changed
+     * @param checked   New state
+     */
+    protected void onChecked(int[] positions, boolean checked) {
+        if (eventDispatcher != null) {
+            eventDispatcher.postChecked(positions, checked);
+        } else {
+            listeners.onChecked(positions, checked);
         }
     }
 
@@ -235,8 +577,10 @@ public class SwipeListView extends ListView {
      * @param position item clicked
      */
     protected void onClickFrontView(int position) {
-        if (swipeListViewListener != null) {
-            swipeListViewListener.onClickFrontView(position);
+        if (eventDispatcher != null) {
+            eventDispatcher.postClickFrontView(position);
+        } else {
+            listeners.onClickFrontView(position);
         }
     }
 
@@ -246,8 +590,24 @@ public class SwipeListView extends ListView {
      * @param position back item clicked
      */
     protected void onClickBackView(int position) {
-        if (swipeListViewListener != null) {
-            swipeListViewListener.onClickBackView(position);
+        if (eventDispatcher != null) {
+            eventDispatcher.postClickBackView(position);
+        } else {
+            listeners.onClickBackView(position);
+        }
+    }
+
+    /**
+     * Notifies onClickBackAction
+     *
+     * @param position item clicked
+     * @param actionId identifier of the drawn action clicked
+     */
+    protected void onClickBackAction(int position, int actionId) {
+        if (eventDispatcher != null) {
+            eventDispatcher.postClickBackAction(position, actionId);
+        } else {
+            listeners.onClickBackAction(position, actionId);
         }
     }
 
@@ -258,8 +618,10 @@ public class SwipeListView extends ListView {
      * @param toRight  If should be opened toward the right
      */
     protected void onOpened(int position, boolean toRight) {
-        if (swipeListViewListener != null) {
-            swipeListViewListener.onOpened(position, toRight);
+        if (eventDispatcher != null) {
+            eventDispatcher.postOpened(position, toRight);
+        } else {
+            listeners.onOpened(position, toRight);
         }
     }
 
@@ -270,8 +632,10 @@ public class SwipeListView extends ListView {
      * @param fromRight If open from right
      */
     protected void onClosed(int position, boolean fromRight) {
-        if (swipeListViewListener != null) {
-            swipeListViewListener.onClosed(position, fromRight);
+        if (eventDispatcher != null) {
+            eventDispatcher.postClosed(position, fromRight);
+        } else {
+            listeners.onClosed(position, fromRight);
         }
     }
 
@@ -279,9 +643,7 @@ public class SwipeListView extends ListView {
      * Notifies onListChanged
      */
     protected void onListChanged() {
-        if (swipeListViewListener != null) {
-            swipeListViewListener.onListChanged();
-        }
+        listeners.onListChanged();
     }
 
     /**
@@ -291,25 +653,62 @@ public class SwipeListView extends ListView {
      * @param x        Current position
      */
     protected void onMove(int position, float x) {
-        if (swipeListViewListener != null) {
-            swipeListViewListener.onMove(position, x);
+        if (listeners.wants(EVENT_MOVE)) {
+            listeners.onMove(position, x);
         }
     }
 
     /**
-     * Sets the Listener
+     * Sets the Listener. It receives every event, along with the listeners added with addSwipeListViewListener
      *
-     * @param swipeListViewListener Listener
+     * @param swipeListViewListener Listener, null to remove it
      */
     public void setSwipeListViewListener(SwipeListViewListener swipeListViewListener) {
+        if (this.swipeListViewListener != null) {
+            listeners.remove(this.swipeListViewListener);
+        }
         this.swipeListViewListener = swipeListViewListener;
+        if (swipeListViewListener != null) {
+            listeners.add(swipeListViewListener, EVENT_ALL);
+        }
+    }
+
+    /**
+     * Adds a listener for every event except onMove
+     *
+     * @param swipeListViewListener Listener
+     */
+    public void addSwipeListViewListener(SwipeListViewListener swipeListViewListener) {
+        addSwipeListViewListener(swipeListViewListener, EVENT_ALL_BUT_MOVE);
+    }
+
+    /**
+     * Adds a listener for some events. Adding a listener again replaces its events
+     *
+     * @param swipeListViewListener Listener
+     * @param events                EVENT_* flags of the events to receive
+     */
+    public void addSwipeListViewListener(SwipeListViewListener swipeListViewListener, int events) {
+        listeners.add(swipeListViewListener, events);
+    }
+
+    /**
+     * Removes a listener
+     *
+     * @param swipeListViewListener Listener
+     */
+    public void removeSwipeListViewListener(SwipeListViewListener swipeListViewListener) {
+        if (swipeListViewListener == this.swipeListViewListener) {
+            this.swipeListViewListener = null;
+        }
+        listeners.remove(swipeListViewListener);
     }
 
     /**
      * Resets scrolling
      */
     public void resetScrolling() {
-        touchState = TOUCH_STATE_REST;
+        touchListener.resetScrolling();
     }
 
     /**
@@ -348,6 +747,16 @@ public class SwipeListView extends ListView {
         touchListener.setSwipeOpenOnLongPress(swipeOpenOnLongPress);
     }
 
+    /**
+     * Sets if moves are coalesced, so onMove and the row translation are applied at most once per display frame.
+     * Before Jelly Bean, which has no vsync callback, they are applied at most once every 10 milliseconds
+     *
+     * @param swipeCoalesceMoves
+     */
+    public void setSwipeCoalesceMoves(boolean swipeCoalesceMoves) {
+        touchListener.setSwipeCoalesceMoves(swipeCoalesceMoves);
+    }
+
     /**
      * Set swipe mode
      *
@@ -393,6 +802,24 @@ public class SwipeListView extends ListView {
         touchListener.setSwipeActionRight(swipeActionRight);
     }
 
+    /**
+     * Return how dismissed rows collapse
+     *
+     * @return Collapse mode
+     */
+    public int getSwipeDismissCollapse() {
+        return touchListener.getSwipeDismissCollapse();
+    }
+
+    /**
+     * Set how dismissed rows collapse
+     *
+     * @param swipeDismissCollapse Collapse mode
+     */
+    public void setSwipeDismissCollapse(int swipeDismissCollapse) {
+        touchListener.setSwipeDismissCollapse(swipeDismissCollapse);
+    }
+
     /**
      * Sets animation time when user drops cell
      *
@@ -403,66 +830,245 @@ public class SwipeListView extends ListView {
     }
 
     /**
-     * @see ListView#onInterceptTouchEvent(android.view.MotionEvent)
+     * Return how animations settle when user drops cell
+     *
+     * @return Settle mode
+     */
+    public int getSwipeSettleMode() {
+        return touchListener.getSwipeSettleMode();
+    }
+
+    /**
+     * Set how animations settle when user drops cell
+     *
+     * @param swipeSettleMode Settle mode
+     */
+    public void setSwipeSettleMode(int swipeSettleMode) {
+        touchListener.setSwipeSettleMode(swipeSettleMode);
+    }
+
+    /**
+     * Return when swiped rows are promoted to hardware layers
+     *
+     * @return Layer policy
+     */
+    public int getSwipeLayerPolicy() {
+        return touchListener.getSwipeLayerPolicy();
+    }
+
+    /**
+     * Set when swiped rows are promoted to hardware layers
+     *
+     * @param swipeLayerPolicy Layer policy
+     */
+    public void setSwipeLayerPolicy(int swipeLayerPolicy) {
+        touchListener.setSwipeLayerPolicy(swipeLayerPolicy);
+    }
+
+    /**
+     * @return Number of row views currently promoted to a hardware layer
+     */
+    public int getActiveLayerCount() {
+        return touchListener.getActiveLayerCount();
+    }
+
+    /**
+     * Sets the maximum number of rows animating at once. Extra animations start when a running one ends
+     *
+     * @param maxConcurrentAnimations maximum, 0 for no limit
+     */
+    public void setMaxConcurrentAnimations(int maxConcurrentAnimations) {
+        animationEngine.setMaxConcurrentAnimations(maxConcurrentAnimations);
+    }
+
+    /**
+     * Sets the actions drawn on the left of the rows, revealed swiping toward the right.
+     * Drawn actions don't need a back view, clicks on them notify onClickBackView
+     *
+     * @param actions Actions, the first one is the closest to the edge
+     */
+    public void setBackActionsLeft(SwipeBackAction... actions) {
+        touchListener.setBackActionsLeft(actions);
+    }
+
+    /**
+     * Sets the actions drawn on the right of the rows, revealed swiping toward the left.
+     * Drawn actions don't need a back view, clicks on them notify onClickBackView
+     *
+     * @param actions Actions, the first one is the closest to the edge
+     */
+    public void setBackActionsRight(SwipeBackAction... actions) {
+        touchListener.setBackActionsRight(actions);
+    }
+
+    /**
+     * Return the drawn back action clicked, to be called from onClickBackView on the UI thread.
+     * With an Executor the next click may already have replaced it, so listeners implement
+     * SwipeListViewBackActionListener instead
+     *
+     * @return Action, null if the click was on a back view or the events run on an Executor
+     */
+    public SwipeBackAction getClickedBackAction() {
+        return eventDispatcher == null ? touchListener.getClickedBackAction() : null;
+    }
+
+    /**
+     * Draws the back actions uncovered by the front view over the row
+     *
+     * @see ListView#drawChild(android.graphics.Canvas, android.view.View, long)
      */
     @Override
-    public boolean onInterceptTouchEvent(MotionEvent ev) {
-        int action = MotionEventCompat.getActionMasked(ev);
-        final float x = ev.getX();
-        final float y = ev.getY();
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        boolean more = super.drawChild(canvas, child, drawingTime);
+        touchListener.drawBackActions(canvas, child);
+        return more;
+    }
 
-        if (touchState == TOUCH_STATE_SCROLLING_X) {
-            return touchListener.onTouch(this, ev);
-        }
+    /**
+     * Draws the pinned section header of a SwipeSectionAdapter over the rows
+     *
+     * @see ListView#dispatchDraw(android.graphics.Canvas)
+     */
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        touchListener.drawStickyHeader(canvas);
+    }
 
-        switch (action) {
-            case MotionEvent.ACTION_MOVE:
-                checkInMoving(x, y);
-                return touchState == TOUCH_STATE_SCROLLING_Y;
-            case MotionEvent.ACTION_DOWN:
-                touchListener.onTouch(this, ev);
-                touchState = TOUCH_STATE_REST;
-                lastMotionX = x;
-                lastMotionY = y;
-                return false;
-            case MotionEvent.ACTION_CANCEL:
-                touchState = TOUCH_STATE_REST;
-                break;
-            case MotionEvent.ACTION_UP:
-                touchListener.onTouch(this, ev);
-                return touchState == TOUCH_STATE_SCROLLING_Y;
-            default:
-                break;
+    /**
+     * @return Engine that runs every row animation
+     */
+    SwipeAnimationEngine getAnimationEngine() {
+        return animationEngine;
+    }
+
+    /**
+     * Sends every event through the swipe state machine once, before the rows and the list handle it
+     *
+     * @see ListView#dispatchTouchEvent(android.view.MotionEvent)
+     */
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        if (touchListener.onTouch(this, ev)) {
+            return true;
         }
+        return super.dispatchTouchEvent(ev);
+    }
 
-        return super.onInterceptTouchEvent(ev);
+    /**
+     * Saves the opened items, the checked items and the dismisses not reported yet
+     *
+     * @see ListView#onSaveInstanceState()
+     */
+    @Override
+    public Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        touchListener.saveState(savedState);
+        return savedState;
     }
 
     /**
-     * Check if the user is moving the cell
+     * Restores the swipe state. Rows take it when they are bound, so the cost does not depend on the adapter size
      *
-     * @param x Position X
-     * @param y Position Y
+     * @see ListView#onRestoreInstanceState(android.os.Parcelable)
      */
-    private void checkInMoving(float x, float y) {
-        final int xDiff = (int) Math.abs(x - lastMotionX);
-        final int yDiff = (int) Math.abs(y - lastMotionY);
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        touchListener.restoreState(savedState);
+    }
 
-        final int touchSlop = this.touchSlop;
-        boolean xMoved = xDiff > touchSlop;
-        boolean yMoved = yDiff > touchSlop;
+    /**
+     * Swipe state of the list. Only the items that differ from the default state are written:
+     * the sparse swipe state entries, the checked items as runs of positions and the dismissed items,
+     * by id with stable ids and by position otherwise
+     */
+    static class SavedState extends BaseSavedState {
+
+        boolean stableIdKeys;
+        int defaultFlags;
+        long[] keys;
+        int[] flags;
+        int[] checkedRuns;
+        long[] checkedIds;
+        int[] dismissedPositions;
+        long[] dismissedIds;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
 
-        if (xMoved) {
-            touchState = TOUCH_STATE_SCROLLING_X;
-            lastMotionX = x;
-            lastMotionY = y;
+        private SavedState(Parcel in) {
+            super(in);
+            stableIdKeys = in.readInt() != 0;
+            defaultFlags = in.readInt();
+            keys = in.createLongArray();
+            flags = in.createIntArray();
+            checkedRuns = in.createIntArray();
+            checkedIds = in.createLongArray();
+            dismissedPositions = in.createIntArray();
+            dismissedIds = in.createLongArray();
         }
 
-        if (yMoved) {
-            touchState = TOUCH_STATE_SCROLLING_Y;
-            lastMotionX = x;
-            lastMotionY = y;
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(stableIdKeys ? 1 : 0);
+            out.writeInt(defaultFlags);
+            out.writeLongArray(keys);
+            out.writeIntArray(this.flags);
+            out.writeIntArray(checkedRuns);
+            out.writeLongArray(checkedIds);
+            out.writeIntArray(dismissedPositions);
+            out.writeLongArray(dismissedIds);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+
+    }
+
+    /**
+     * Cancels the touch of the rows and the list when a swipe takes over the gesture
+     *
+     * @param cancelEvent ACTION_CANCEL event
+     */
+    void cancelTouchTargets(MotionEvent cancelEvent) {
+        super.dispatchTouchEvent(cancelEvent);
+    }
+
+    /**
+     * @see ListView#onInterceptTouchEvent(android.view.MotionEvent)
+     */
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        int action = MotionEventCompat.getActionMasked(ev);
+
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                return false;
+            case MotionEvent.ACTION_MOVE:
+            case MotionEvent.ACTION_UP:
+                return touchListener.isScrollingY();
+            default:
+                break;
         }
+
+        return super.onInterceptTouchEvent(ev);
     }
 
 }
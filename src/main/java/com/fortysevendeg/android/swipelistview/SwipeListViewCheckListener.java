@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+/**
+ * Optional callback for the checked items of a SwipeListView. A SwipeListViewListener
+ * that also implements this interface receives onChecked
+ */
+public interface SwipeListViewCheckListener {
+
+    /**
+     * Called when items are checked or unchecked, once per swipe or per call that changes them
+     * @param positions Items changed, in ascending order
+     * @param checked New state of the items
+     */
+    void onChecked(int[] positions, boolean checked);
+
+}
@@ -20,72 +20,242 @@
 
 package com.fortysevendeg.android.swipelistview;
 
-import android.graphics.Rect;
-import android.os.Handler;
+import android.graphics.Canvas;
+import android.os.Build;
+import android.support.v4.view.ViewConfigurationCompat;
 import android.view.*;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
 import android.widget.AbsListView;
+import android.widget.ListAdapter;
 import android.widget.ListView;
-import com.nineoldandroids.animation.Animator;
-import com.nineoldandroids.animation.AnimatorListenerAdapter;
-import com.nineoldandroids.animation.ValueAnimator;
+import android.widget.WrapperListAdapter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static com.nineoldandroids.view.ViewHelper.getAlpha;
+import static com.nineoldandroids.view.ViewHelper.getTranslationX;
 import static com.nineoldandroids.view.ViewHelper.setAlpha;
 import static com.nineoldandroids.view.ViewHelper.setTranslationX;
-import static com.nineoldandroids.view.ViewPropertyAnimator.animate;
+import static com.nineoldandroids.view.ViewHelper.setTranslationY;
 
 /**
  * Touch listener impl for the SwipeListView
  */
 public class SwipeListViewTouchListener implements View.OnTouchListener {
 
-    private int swipeMode = SwipeListView.SWIPE_MODE_BOTH;
+    private static final Interpolator SETTLE_INTERPOLATOR = new DecelerateInterpolator();
+
+    /**
+     * Label size of the drawn back actions, in sp
+     */
+    private static final int DEFAULT_BACK_ACTION_LABEL_SIZE = 14;
+
     private boolean swipeOpenOnLongPress = true;
     private boolean swipeClosesAllItemsWhenListMoves = true;
 
     private int swipeFrontView = 0;
     private int swipeBackView = 0;
 
-    private Rect rect = new Rect();
-
     // Cached ViewConfiguration and system-wide constant values
-    private int slop;
     private int minFlingVelocity;
-    private int maxFlingVelocity;
     private long configShortAnimationTime;
     private long animationTime;
+    private int swipeSettleMode = SwipeListView.SWIPE_SETTLE_FIXED;
+    private float releaseVelocityX;
 
     private float leftOffset = 0;
     private float rightOffset = 0;
 
     // Fixed properties
     private SwipeListView swipeListView;
+    private SwipeAnimationEngine animationEngine;
+    private SwipeBackActionPainter backActionPainter;
+    private SwipeBackAction clickedBackAction;
     private int viewWidth = 1; // 1 and not 0 to prevent dividing by zero
 
     private List<PendingDismissData> pendingDismisses = new ArrayList<PendingDismissData>();
     private int dismissAnimationRefCount = 0;
 
-    private float downX;
-    private boolean swiping;
+    private long swipeDismissCommitDelay = 0;
+    private long[] heldDismissKeys = new long[8];
+    private int[] heldDismissPositions = new int[8];
+    private int heldDismissCount;
+    private int hiddenRowCount;
+
+    /**
+     * Positions reported in onDismiss on an executor, waiting for the adapter to remove them
+     */
+    private int[] unappliedDismisses = new int[8];
+    private int unappliedDismissCount;
+
+    /**
+     * Delivers the held dismisses once the commit window expires
+     */
+    private final Runnable commitDismisses = new Runnable() {
+        @Override
+        public void run() {
+            commitDismiss();
+        }
+    };
+
+    private SwipeGesture gesture;
     private VelocityTracker velocityTracker;
     private int downPosition;
+    private SwipeRowHolder currentRow;
     private View parentView;
     private View frontView;
     private View backView;
-    private boolean paused;
+    private boolean pointerDown;
+
+    private boolean swipeCoalesceMoves;
+    private float pendingMoveDeltaX;
+
+    /**
+     * Applies the latest coalesced move once per frame
+     */
+    private final Runnable pendingMove = new Runnable() {
+        @Override
+        public void run() {
+            move(pendingMoveDeltaX);
+        }
+    };
 
-    private int swipeCurrentAction = SwipeListView.SWIPE_ACTION_NONE;
+    private int swipeDismissCollapse = SwipeListView.SWIPE_DISMISS_COLLAPSE_LAYOUT;
+
+    private int swipeBulkAnimationsPerFrame = 0;
+    private int[] bulkPositions = new int[16];
+    private long[] bulkKeys = new long[16];
+    private int[] bulkFlags = new int[16];
+    private int bulkCount;
+    private int bulkIndex;
+    private boolean bulkOpen;
+    private boolean bulkOpenRight;
+
+    /**
+     * Starts the next animations of a bulk open or close
+     */
+    private final Runnable bulkStep = new Runnable() {
+        @Override
+        public void run() {
+            startBulkAnimations();
+        }
+    };
 
-    private int swipeActionLeft = SwipeListView.SWIPE_ACTION_REVEAL;
-    private int swipeActionRight = SwipeListView.SWIPE_ACTION_REVEAL;
+    private int swipeLayerPolicy = SwipeListView.SWIPE_LAYER_NONE;
+    private List<View> layeredViews = new ArrayList<View>();
+    private View gestureLayerView;
 
-    private List<Boolean> opened = new ArrayList<Boolean>();
-    private List<Boolean> openedRight = new ArrayList<Boolean>();
+    /**
+     * Drops the hardware layer of the views that are no longer swiped or animated.
+     * It runs on the next frame, so an animation replacing another one keeps the layer
+     */
+    private final Runnable demoteLayers = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = layeredViews.size() - 1; i >= 0; i--) {
+                View view = layeredViews.get(i);
+                if (swipeLayerPolicy == SwipeListView.SWIPE_LAYER_NONE
+                        || (view != gestureLayerView
+                        && animationEngine.find(view, SwipeAnimationEngine.TYPE_REVEAL) == null
+                        && animationEngine.find(view, SwipeAnimationEngine.TYPE_DISMISS) == null)) {
+                    setLayerType(view, View.LAYER_TYPE_NONE);
+                    layeredViews.remove(i);
+                }
+            }
+        }
+    };
+
+    private SwipeStateStore swipeStates = new SwipeStateStore();
+    private SwipeCheckedSet checkedItems = new SwipeCheckedSet();
+    private SwipeListView.SavedState pendingRestore;
+    private SwipeListView.SavedState pendingDismissRestore;
+    private final SwipeStickyHeader stickyHeader = new SwipeStickyHeader();
+    private boolean stableIdKeys;
     private boolean listViewMoving;
 
+    /**
+     * Shared listeners installed once on every row. Rows get ACTION_UP after the gesture is reset,
+     * so the position comes from the clicked view
+     */
+    private final View.OnClickListener frontClickListener = new View.OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            int position = swipeListView.getPositionForView(v);
+            if (position != ListView.INVALID_POSITION) {
+                swipeListView.onClickFrontView(position);
+            }
+        }
+    };
+
+    private final View.OnLongClickListener frontLongClickListener = new View.OnLongClickListener() {
+        @Override
+        public boolean onLongClick(View v) {
+            int position = swipeListView.getPositionForView(v);
+            if (swipeOpenOnLongPress && position != ListView.INVALID_POSITION) {
+                openAnimate(position);
+            }
+            return false;
+        }
+    };
+
+    private final View.OnClickListener backClickListener = new View.OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            int position = swipeListView.getPositionForView(v);
+            if (position != ListView.INVALID_POSITION) {
+                clickedBackAction = null;
+                swipeListView.onClickBackView(position);
+            }
+        }
+    };
+
+    /**
+     * Routes the row animations of the shared engine
+     */
+    private final SwipeAnimationEngine.Callback animationCallback = new SwipeAnimationEngine.Callback() {
+        @Override
+        public void onRowAnimationUpdate(SwipeAnimationEngine.RowAnimation animation) {
+            if (animation.type == SwipeAnimationEngine.TYPE_COLLAPSE) {
+                onCollapseAnimationUpdate(animation);
+            } else if (animation.type == SwipeAnimationEngine.TYPE_REVEAL) {
+                updateBackViewVisibility((SwipeRowHolder) animation.view.getTag(R.id.swipelistview_holder));
+                if (backActionPainter.hasActions()) {
+                    swipeListView.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public void onRowAnimationEnd(SwipeAnimationEngine.RowAnimation animation, boolean finished) {
+            switch (animation.type) {
+                case SwipeAnimationEngine.TYPE_REVEAL:
+                    updateBackViewVisibility((SwipeRowHolder) animation.view.getTag(R.id.swipelistview_holder));
+                    scheduleLayerDemotion();
+                    if (finished) {
+                        onRevealAnimationEnd(animation);
+                    }
+                    break;
+                case SwipeAnimationEngine.TYPE_DISMISS:
+                    scheduleLayerDemotion();
+                    if (animation.swap) {
+                        if (finished) {
+                            performDismiss(animation.view, animation.position);
+                        } else {
+                            --dismissAnimationRefCount;
+                        }
+                    }
+                    break;
+                case SwipeAnimationEngine.TYPE_COLLAPSE:
+                    onCollapseAnimationEnd();
+                    break;
+            }
+        }
+    };
+
     /**
      * Constructor
      * @param swipeListView SwipeListView
@@ -96,57 +266,103 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
         this.swipeFrontView = swipeFrontView;
         this.swipeBackView = swipeBackView;
         ViewConfiguration vc = ViewConfiguration.get(swipeListView.getContext());
-        slop = vc.getScaledTouchSlop();
         minFlingVelocity = vc.getScaledMinimumFlingVelocity();
-        maxFlingVelocity = vc.getScaledMaximumFlingVelocity();
+        gesture = new SwipeGesture(vc.getScaledTouchSlop(), ViewConfigurationCompat.getScaledPagingTouchSlop(vc),
+                minFlingVelocity, vc.getScaledMaximumFlingVelocity());
         configShortAnimationTime = swipeListView.getContext().getResources().getInteger(android.R.integer.config_shortAnimTime);
         animationTime = configShortAnimationTime;
         this.swipeListView = swipeListView;
+        animationEngine = swipeListView.getAnimationEngine();
+        animationEngine.setCallback(animationCallback);
+        backActionPainter = new SwipeBackActionPainter(
+                DEFAULT_BACK_ACTION_LABEL_SIZE * swipeListView.getContext().getResources().getDisplayMetrics().scaledDensity);
     }
 
     /**
-     * Sets current item's parent view
-     * @param parentView Parent view
+     * Sets current item's views
+     * @param holder Holder of the item
      */
-    private void setParentView(View parentView) {
-        this.parentView = parentView;
+    private void setCurrentRow(SwipeRowHolder holder) {
+        this.currentRow = holder;
+        this.parentView = holder.rowView;
+        this.frontView = holder.frontView;
+        this.backView = holder.backView;
     }
 
     /**
-     * Sets current item's front view
-     * @param frontView Front view
+     * Returns the holder of a row, creating it and installing the listeners the first time the row is seen.
+     * Rows without front view are marked too, so they are not searched again on every pass
+     * @param rowView Row view
+     * @return Holder of the row, null if the row has no front view, like headers and footers
      */
-    private void setFrontView(View frontView) {
-        this.frontView = frontView;
-        frontView.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                swipeListView.onClickFrontView(downPosition);
-            }
-        });
-        if (swipeOpenOnLongPress) {
-            frontView.setOnLongClickListener(new View.OnLongClickListener() {
-                @Override
-                public boolean onLongClick(View v) {
-                    openAnimate(downPosition);
-                    return false;
-                }
-            });
+    private SwipeRowHolder getRowHolder(View rowView) {
+        Object tag = rowView.getTag(R.id.swipelistview_holder);
+        if (tag == SwipeRowHolder.NO_FRONT_VIEW) {
+            return null;
+        }
+        SwipeRowHolder holder = (SwipeRowHolder) tag;
+        if (holder == null) {
+            View frontView = rowView.findViewById(swipeFrontView);
+            if (frontView == null) {
+                rowView.setTag(R.id.swipelistview_holder, SwipeRowHolder.NO_FRONT_VIEW);
+                return null;
+            }
+            holder = new SwipeRowHolder(rowView, frontView,
+                    swipeBackView > 0 ? rowView.findViewById(swipeBackView) : null);
+            holder.frontView.setOnClickListener(frontClickListener);
+            holder.frontView.setOnLongClickListener(frontLongClickListener);
+            if (holder.backView != null) {
+                holder.backView.setOnClickListener(backClickListener);
+                updateBackViewVisibility(holder);
+            }
+            rowView.setTag(R.id.swipelistview_holder, holder);
+            frontView.setTag(R.id.swipelistview_holder, holder);
         }
+        return holder;
     }
 
     /**
-     * Set current item's back view
-     * @param backView
+     * Inflates the back view of a row declared as a ViewStub, the first time the row is revealed.
+     * The inflated view stays in the row, so it is reused when the row is recycled
+     * @param holder Holder of the row
+     * @return Back view of the row, null if the row has none
      */
-    private void setBackView(View backView) {
-        this.backView = backView;
-        backView.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                swipeListView.onClickBackView(downPosition);
+    private View inflateBackView(SwipeRowHolder holder) {
+        if (holder.backView == null && holder.backStub != null) {
+            ViewStub backStub = holder.backStub;
+            if (backStub.getInflatedId() == View.NO_ID) {
+                // Keep the back view reachable by its id once the stub is replaced
+                backStub.setInflatedId(swipeBackView);
+            }
+            holder.backView = backStub.inflate();
+            holder.backStub = null;
+            holder.backView.setOnClickListener(backClickListener);
+        }
+        return holder.backView;
+    }
+
+    /**
+     * Hides the back view while the front view covers it, so closed rows don't draw it at all.
+     * Visibility only changes when the row opens or closes; back views set to GONE are left alone
+     * @param holder Holder of the row
+     */
+    private void updateBackViewVisibility(SwipeRowHolder holder) {
+        if (holder != null && holder.backView != null && holder.backView.getVisibility() != View.GONE) {
+            int visibility = getTranslationX(holder.frontView) != 0 ? View.VISIBLE : View.INVISIBLE;
+            if (holder.backView.getVisibility() != visibility) {
+                holder.backView.setVisibility(visibility);
             }
-        });
+        }
+    }
+
+    /**
+     * Returns the holder of a visible item
+     * @param position Position of list
+     * @return Holder of the item
+     */
+    private SwipeRowHolder getVisibleRowHolder(int position) {
+        View rowView = swipeListView.getChildAt(position - swipeListView.getFirstVisiblePosition());
+        return rowView != null ? getRowHolder(rowView) : null;
     }
 
     /**
@@ -169,6 +385,165 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
         }
     }
 
+    /**
+     * Return how animations settle when the user drops the cell
+     *
+     * @return Settle mode
+     */
+    public int getSwipeSettleMode() {
+        return swipeSettleMode;
+    }
+
+    /**
+     * Set how animations settle when the user drops the cell
+     *
+     * @param swipeSettleMode Settle mode
+     */
+    public void setSwipeSettleMode(int swipeSettleMode) {
+        this.swipeSettleMode = swipeSettleMode;
+    }
+
+    /**
+     * Return if moves are coalesced to one per frame
+     *
+     * @return true if moves are coalesced
+     */
+    public boolean isSwipeCoalesceMoves() {
+        return swipeCoalesceMoves;
+    }
+
+    /**
+     * Set if moves are coalesced to one per frame. Translations and onMove are then applied
+     * at most once per frame with the latest position, velocity still uses every sample.
+     * Frames follow the display vsync from Jelly Bean on, and last 10 milliseconds before
+     *
+     * @param swipeCoalesceMoves true to coalesce moves
+     */
+    public void setSwipeCoalesceMoves(boolean swipeCoalesceMoves) {
+        this.swipeCoalesceMoves = swipeCoalesceMoves;
+        if (!swipeCoalesceMoves) {
+            flushPendingMove();
+        }
+    }
+
+    /**
+     * Sets the actions drawn on the left of the rows, revealed swiping toward the right
+     *
+     * @param actions Actions, the first one is the closest to the edge
+     */
+    public void setBackActionsLeft(SwipeBackAction... actions) {
+        backActionPainter.setActionsLeft(actions);
+        swipeListView.invalidate();
+    }
+
+    /**
+     * Sets the actions drawn on the right of the rows, revealed swiping toward the left
+     *
+     * @param actions Actions, the first one is the closest to the edge
+     */
+    public void setBackActionsRight(SwipeBackAction... actions) {
+        backActionPainter.setActionsRight(actions);
+        swipeListView.invalidate();
+    }
+
+    /**
+     * Return the drawn back action of the last onClickBackView
+     *
+     * @return Action, null if the click was on a back view
+     */
+    public SwipeBackAction getClickedBackAction() {
+        return clickedBackAction;
+    }
+
+    /**
+     * Draws the pinned section header over the rows
+     *
+     * @param canvas Canvas of the list
+     */
+    void drawStickyHeader(Canvas canvas) {
+        stickyHeader.draw(canvas, swipeListView);
+    }
+
+    /**
+     * Draws the back actions uncovered by the front view of a row
+     *
+     * @param canvas Canvas of the list
+     * @param rowView Row view
+     */
+    void drawBackActions(Canvas canvas, View rowView) {
+        if (backActionPainter.hasActions()) {
+            SwipeRowHolder holder = getRowHolder(rowView);
+            if (holder != null) {
+                backActionPainter.draw(canvas, rowView, holder.frontView);
+            }
+        }
+    }
+
+    /**
+     * Return when swiped rows are promoted to hardware layers
+     *
+     * @return Layer policy
+     */
+    public int getSwipeLayerPolicy() {
+        return swipeLayerPolicy;
+    }
+
+    /**
+     * Set when swiped rows are promoted to hardware layers
+     *
+     * @param swipeLayerPolicy Layer policy
+     */
+    public void setSwipeLayerPolicy(int swipeLayerPolicy) {
+        this.swipeLayerPolicy = swipeLayerPolicy;
+        scheduleLayerDemotion();
+    }
+
+    /**
+     * @return Number of row views currently promoted to a hardware layer
+     */
+    public int getActiveLayerCount() {
+        return layeredViews.size();
+    }
+
+    /**
+     * Promotes a swiped or animated view to a hardware layer, if the layer policy allows it
+     * @param view Row or front view
+     * @param gesture true if the view follows the finger, false if it is animated
+     */
+    private void promoteLayer(View view, boolean gesture) {
+        if (swipeLayerPolicy == SwipeListView.SWIPE_LAYER_NONE || Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB
+                || (gesture && swipeLayerPolicy != SwipeListView.SWIPE_LAYER_GESTURE)) {
+            return;
+        }
+        if (gesture) {
+            gestureLayerView = view;
+        }
+        if (!layeredViews.contains(view)) {
+            setLayerType(view, View.LAYER_TYPE_HARDWARE);
+            layeredViews.add(view);
+        }
+    }
+
+    /**
+     * Sets the layer type of a view. Layers do not exist before Honeycomb
+     * @param view Row or front view
+     * @param layerType View.LAYER_TYPE_NONE or View.LAYER_TYPE_HARDWARE
+     */
+    private static void setLayerType(View view, int layerType) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            view.setLayerType(layerType, null);
+        }
+    }
+
+    /**
+     * Demotes the layers no longer needed on the next frame
+     */
+    private void scheduleLayerDemotion() {
+        if (!layeredViews.isEmpty()) {
+            animationEngine.scheduleFrame(demoteLayers);
+        }
+    }
+
     /**
      * Sets the right offset
      *
@@ -176,6 +551,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      */
     public void setRightOffset(float rightOffset) {
         this.rightOffset = rightOffset;
+        gesture.setRightOffset(rightOffset);
     }
 
     /**
@@ -185,6 +561,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      */
     public void setLeftOffset(float leftOffset) {
         this.leftOffset = leftOffset;
+        gesture.setLeftOffset(leftOffset);
     }
 
     /**
@@ -211,7 +588,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param swipeMode
      */
     public void setSwipeMode(int swipeMode) {
-        this.swipeMode = swipeMode;
+        gesture.setSwipeMode(swipeMode);
     }
 
     /**
@@ -220,7 +597,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @return Action
      */
     public int getSwipeActionLeft() {
-        return swipeActionLeft;
+        return gesture.getSwipeActionLeft();
     }
 
     /**
@@ -229,7 +606,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param swipeActionLeft Action
      */
     public void setSwipeActionLeft(int swipeActionLeft) {
-        this.swipeActionLeft = swipeActionLeft;
+        gesture.setSwipeActionLeft(swipeActionLeft);
     }
 
     /**
@@ -238,7 +615,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @return Action
      */
     public int getSwipeActionRight() {
-        return swipeActionRight;
+        return gesture.getSwipeActionRight();
     }
 
     /**
@@ -247,46 +624,241 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param swipeActionRight Action
      */
     public void setSwipeActionRight(int swipeActionRight) {
-        this.swipeActionRight = swipeActionRight;
+        gesture.setSwipeActionRight(swipeActionRight);
+    }
+
+    /**
+     * Return how dismissed rows collapse
+     *
+     * @return Collapse mode
+     */
+    public int getSwipeDismissCollapse() {
+        return swipeDismissCollapse;
+    }
+
+    /**
+     * Set how dismissed rows collapse
+     *
+     * @param swipeDismissCollapse Collapse mode
+     */
+    public void setSwipeDismissCollapse(int swipeDismissCollapse) {
+        this.swipeDismissCollapse = swipeDismissCollapse;
+    }
+
+    /**
+     * Clears all items state when a new adapter is set.
+     * Adapters with stable ids get their state keyed by item id so it survives data changes
+     */
+    public void resetAdapter() {
+        ListAdapter adapter = swipeListView.getAdapter();
+        stableIdKeys = adapter != null && adapter.hasStableIds();
+        swipeStates.clear();
+        checkedItems.reset(adapter);
+        dropHeldDismisses();
+        pendingDismissRestore = null;
+        unappliedDismissCount = 0;
+        bulkCount = 0;
+        // Sections come from the user adapter, the list wraps it when it has header or footer views
+        ListAdapter sectionAdapter = adapter instanceof WrapperListAdapter ? ((WrapperListAdapter) adapter).getWrappedAdapter() : adapter;
+        stickyHeader.setAdapter(sectionAdapter instanceof SwipeSectionAdapter ? (SwipeSectionAdapter) sectionAdapter : null,
+                swipeListView.getHeaderViewsCount());
+        if (pendingRestore != null && adapter != null) {
+            SwipeListView.SavedState savedState = pendingRestore;
+            pendingRestore = null;
+            restoreState(savedState);
+        }
+    }
+
+    /**
+     * Writes the swipe state of the items to a saved state. Dismisses still animating or held
+     * are saved as dismissed, so they are reported after the restore
+     * @param savedState saved state of the list
+     */
+    void saveState(SwipeListView.SavedState savedState) {
+        int size = swipeStates.size();
+        savedState.stableIdKeys = stableIdKeys;
+        savedState.defaultFlags = swipeStates.getDefaultFlags();
+        savedState.keys = new long[size];
+        savedState.flags = new int[size];
+        for (int i = 0; i < size; i++) {
+            savedState.keys[i] = swipeStates.keyAt(i);
+            savedState.flags[i] = swipeStates.flagsAt(i);
+        }
+        savedState.checkedRuns = checkedItems.getRuns();
+        savedState.checkedIds = checkedItems.getIds();
+        if (pendingDismissRestore != null) {
+            // The adapter has not reported data since the restore, so nothing else was dismissed
+            savedState.dismissedPositions = pendingDismissRestore.dismissedPositions;
+            savedState.dismissedIds = pendingDismissRestore.dismissedIds;
+            return;
+        }
+        int[] heldPositions = resolveHeldDismisses();
+        int[] dismissedPositions = Arrays.copyOf(heldPositions, heldPositions.length + pendingDismisses.size());
+        for (int i = 0; i < pendingDismisses.size(); i++) {
+            dismissedPositions[heldPositions.length + i] = pendingDismisses.get(i).position;
+        }
+        Arrays.sort(dismissedPositions);
+        if (stableIdKeys) {
+            savedState.dismissedPositions = new int[0];
+            savedState.dismissedIds = new long[dismissedPositions.length];
+            for (int i = 0; i < dismissedPositions.length; i++) {
+                savedState.dismissedIds[i] = getItemKey(dismissedPositions[i]);
+            }
+        } else {
+            savedState.dismissedPositions = dismissedPositions;
+            savedState.dismissedIds = new long[0];
+        }
+    }
+
+    /**
+     * Restores the swipe state of the items. Only the saved entries are copied; the visible rows
+     * take their state on the next bind pass and the others when they are bound.
+     * Without adapter, the state waits for the next one; dismissed items wait for the adapter to have data
+     * @param savedState saved state of the list
+     */
+    void restoreState(SwipeListView.SavedState savedState) {
+        ListAdapter adapter = swipeListView.getAdapter();
+        if (adapter == null) {
+            pendingRestore = savedState;
+            return;
+        }
+        if (adapter.hasStableIds() != savedState.stableIdKeys) {
+            // Keys were saved for another kind of adapter
+            return;
+        }
+        swipeStates.restore(savedState.defaultFlags, savedState.keys, savedState.flags);
+        checkedItems.restore(savedState.checkedRuns, savedState.checkedIds);
+        pendingDismissRestore = savedState.dismissedPositions.length > 0 || savedState.dismissedIds.length > 0 ? savedState : null;
+        restoreDismisses();
+        unbindVisibleRows();
+        bindVisibleRows();
+    }
+
+    /**
+     * Holds the restored dismisses once the adapter has data, so they are not reported against an empty
+     * or still loading adapter. Positions no longer in the adapter and ids not found at commit are dropped
+     */
+    private void restoreDismisses() {
+        int count = swipeListView.getAdapter().getCount();
+        if (pendingDismissRestore == null || count == 0) {
+            return;
+        }
+        SwipeListView.SavedState savedState = pendingDismissRestore;
+        pendingDismissRestore = null;
+        for (long id : savedState.dismissedIds) {
+            // Found by id when the dismiss is resolved
+            holdDismiss(id, -1);
+        }
+        for (int position : savedState.dismissedPositions) {
+            if (position < count) {
+                holdDismiss(position, position);
+            }
+        }
+        if (heldDismissCount > 0) {
+            // Kept hidden and reported when the commit window expires, right away without a delay
+            swipeListView.removeCallbacks(commitDismisses);
+            swipeListView.postDelayed(commitDismisses, swipeDismissCommitDelay);
+            bindHeldDismisses();
+        }
     }
 
     /**
-     * Adds new items when adapter is modified
+     * Drops the state of the items removed when adapter is modified
      */
     public void resetItems() {
-        if (swipeListView.getAdapter() != null) {
-            int count = swipeListView.getAdapter().getCount();
-            for (int i = opened.size(); i <= count; i++) {
-                opened.add(false);
-                openedRight.add(false);
+        if (swipeListView.getAdapter() == null) {
+            swipeStates.clear();
+            checkedItems.clear();
+            dropHeldDismisses();
+            pendingDismissRestore = null;
+            unappliedDismissCount = 0;
+        } else {
+            if (unappliedDismissCount > 0) {
+                // The listener removed the dismissed items, their rows are shown again on the next bind pass
+                int[] reverseSortedPositions = new int[unappliedDismissCount];
+                for (int i = 0; i < unappliedDismissCount; i++) {
+                    reverseSortedPositions[i] = unappliedDismisses[unappliedDismissCount - 1 - i];
+                }
+                unappliedDismissCount = 0;
+                if (!stableIdKeys) {
+                    removeDismissedState(reverseSortedPositions);
+                }
+            }
+            if (!stableIdKeys) {
+                swipeStates.truncate(swipeListView.getAdapter().getCount());
+                // Held positions may point to other items now, and nothing tells which
+                dropHeldDismisses();
+                unbindVisibleRows();
             }
+            checkedItems.onDataChanged(swipeListView.getAdapter().getCount());
+            restoreDismisses();
         }
+        // Pending bulk positions may point to other items now
+        bulkCount = 0;
+        stickyHeader.rebuild();
     }
 
     /**
-     * Open item
+     * Returns the key used to store the state of an item
+     * @param position Position of list
+     * @return item id if the adapter has stable ids, the position otherwise
+     */
+    private long getItemKey(int position) {
+        return stableIdKeys ? swipeListView.getAdapter().getItemId(position) : position;
+    }
+
+    /**
+     * Open item. Items out of the screen are opened without animation nor onOpened when their row is bound
      * @param position Position of list
      */
     protected void openAnimate(int position) {
-        openAnimate(swipeListView.getChildAt(position - swipeListView.getFirstVisiblePosition()).findViewById(swipeFrontView), position);
+        openAnimate(position, false);
     }
 
     /**
-     * Close item
+     * Open item toward a side. Items out of the screen are opened without animation nor onOpened
+     * when their row is bound
+     * @param position Position of list
+     * @param toRight If should be opened toward the right
+     */
+    private void openAnimate(int position, boolean toRight) {
+        SwipeRowHolder holder = getVisibleRowHolder(position);
+        if (holder != null) {
+            inflateBackView(holder);
+            openAnimate(holder.frontView, position, toRight);
+        } else {
+            long key = getItemKey(position);
+            if (!swipeStates.isOpened(key)) {
+                swipeStates.setOpened(key, true, toRight);
+            }
+        }
+    }
+
+    /**
+     * Close item. Items out of the screen are closed without animation nor onClosed when their row is bound
      * @param position Position of list
      */
     protected void closeAnimate(int position) {
-        closeAnimate(swipeListView.getChildAt(position - swipeListView.getFirstVisiblePosition()).findViewById(swipeFrontView), position);
+        SwipeRowHolder holder = getVisibleRowHolder(position);
+        if (holder != null) {
+            closeAnimate(holder.frontView, position);
+        } else {
+            long key = getItemKey(position);
+            if (swipeStates.isOpened(key)) {
+                swipeStates.setOpened(key, false, false);
+            }
+        }
     }
 
     /**
      * Open item
      * @param view affected view
      * @param position Position of list
+     * @param toRight If should be opened toward the right
      */
-    private void openAnimate(View view, int position) {
-        if (!opened.get(position)) {
-            generateRevealAnimate(view, true, false, position);
+    private void openAnimate(View view, int position, boolean toRight) {
+        if (!swipeStates.isOpened(getItemKey(position))) {
+            generateRevealAnimate(view, true, toRight, position);
         }
     }
 
@@ -296,7 +868,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param position Position of list
      */
     private void closeAnimate(View view, int position) {
-        if (opened.get(position)) {
+        if (swipeStates.isOpened(getItemKey(position))) {
             generateRevealAnimate(view, true, false, position);
         }
     }
@@ -309,12 +881,19 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param position Position of list
      */
     private void generateAnimate(final View view, final boolean swap, final boolean swapRight, final int position) {
+        int swipeCurrentAction = gesture.getSwipeCurrentAction();
         if (swipeCurrentAction == SwipeListView.SWIPE_ACTION_REVEAL) {
             generateRevealAnimate(view, swap, swapRight, position);
         }
         if (swipeCurrentAction == SwipeListView.SWIPE_ACTION_DISMISS) {
             generateDismissAnimate(parentView, swap, swapRight, position);
         }
+        if (swipeCurrentAction == SwipeListView.SWIPE_ACTION_CHECK) {
+            if (swap) {
+                setCheckedRange(position, position + 1, !checkedItems.isChecked(position));
+            }
+            generateRevealAnimate(view, false, false, position);
+        }
     }
 
     /**
@@ -324,11 +903,15 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param swapRight If swap is true, this parameter tells if move is to the right or left
      * @param position Position of list
      */
-    private void generateDismissAnimate(final View view, final boolean swap, final boolean swapRight, final int position) {
+    private void generateDismissAnimate(View view, boolean swap, boolean swapRight, int position) {
         int moveTo = 0;
-        if (opened.get(position)) {
-            if (!swap) {
-                moveTo = openedRight.get(position) ? (int) (viewWidth - rightOffset) : (int) (-viewWidth + leftOffset);
+        int state = swipeStates.getFlags(getItemKey(position));
+        if ((state & SwipeStateStore.FLAG_OPENED) != 0) {
+            if (swap) {
+                // Continue the slide of the opened front view out of the list
+                moveTo = swapRight ? viewWidth : -viewWidth;
+            } else {
+                moveTo = (state & SwipeStateStore.FLAG_OPENED_RIGHT) != 0 ? (int) (viewWidth - rightOffset) : (int) (-viewWidth + leftOffset);
             }
         } else {
             if (swap) {
@@ -342,19 +925,15 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
             alpha = 0;
         }
 
-        animate(view)
-                .translationX(moveTo)
-                .alpha(alpha)
-                .setDuration(animationTime)
-                .setListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        if (swap) {
-                            performDismiss(view, position);
-                        }
-                    }
-                });
-
+        SwipeAnimationEngine.RowAnimation animation = animationEngine.obtain(SwipeAnimationEngine.TYPE_DISMISS, view, animationTime)
+                .translationX(getTranslationX(view), moveTo)
+                .alpha(getAlpha(view), alpha);
+        animation.position = position;
+        animation.swap = swap;
+        animation.swapRight = swapRight;
+        applySettleTiming(animation);
+        animationEngine.start(animation);
+        promoteLayer(view, false);
     }
 
     /**
@@ -364,11 +943,13 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param swapRight If swap is true, this parameter tells if movement is toward right or left
      * @param position list position
      */
-    private void generateRevealAnimate(final View view, final boolean swap, final boolean swapRight, final int position) {
+    private void generateRevealAnimate(View view, boolean swap, boolean swapRight, int position) {
+        long key = getItemKey(position);
         int moveTo = 0;
-        if (opened.get(position)) {
+        int state = swipeStates.getFlags(key);
+        if ((state & SwipeStateStore.FLAG_OPENED) != 0) {
             if (!swap) {
-                moveTo = openedRight.get(position) ? (int) (viewWidth - rightOffset) : (int) (-viewWidth + leftOffset);
+                moveTo = (state & SwipeStateStore.FLAG_OPENED_RIGHT) != 0 ? (int) (viewWidth - rightOffset) : (int) (-viewWidth + leftOffset);
             }
         } else {
             if (swap) {
@@ -376,25 +957,55 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
             }
         }
 
-        animate(view)
-                .translationX(moveTo)
-                .setDuration(animationTime)
-                .setListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        swipeListView.resetScrolling();
-                        if (swap) {
-                            boolean aux = !opened.get(position);
-                            opened.set(position, aux);
-                            if (aux) {
-                                swipeListView.onOpened(position, swapRight);
-                                openedRight.set(position, swapRight);
-                            } else {
-                                swipeListView.onClosed(position, openedRight.get(position));
-                            }
-                        }
-                    }
-                });
+        SwipeAnimationEngine.RowAnimation animation = animationEngine.obtain(SwipeAnimationEngine.TYPE_REVEAL, view, animationTime)
+                .translationX(getTranslationX(view), moveTo);
+        animation.position = position;
+        animation.key = key;
+        animation.swap = swap;
+        animation.swapRight = swapRight;
+        applySettleTiming(animation);
+        animationEngine.start(animation);
+        promoteLayer(view, false);
+    }
+
+    /**
+     * In velocity settle mode, computes the duration from the remaining distance and the release velocity.
+     * The decelerate curve starts at twice the average speed, so a duration of 2 * distance / velocity
+     * continues the movement at the speed the finger had when it was released
+     * @param animation settle animation
+     */
+    private void applySettleTiming(SwipeAnimationEngine.RowAnimation animation) {
+        if (swipeSettleMode != SwipeListView.SWIPE_SETTLE_VELOCITY) {
+            return;
+        }
+        float distance = animation.toX - animation.fromX;
+        long duration;
+        if (Math.abs(releaseVelocityX) >= minFlingVelocity && distance * releaseVelocityX > 0) {
+            duration = (long) (2000 * Math.abs(distance / releaseVelocityX));
+        } else {
+            duration = (long) (animationTime * Math.abs(distance) / viewWidth);
+        }
+        animation.duration = Math.max(animationTime / 4, Math.min(animationTime, duration));
+        animation.interpolator = SETTLE_INTERPOLATOR;
+    }
+
+    /**
+     * Ends a reveal animation, changing the item state if needed
+     * @param animation finished animation
+     */
+    private void onRevealAnimationEnd(SwipeAnimationEngine.RowAnimation animation) {
+        swipeListView.resetScrolling();
+        if (animation.swap) {
+            long key = animation.key;
+            if (swipeStates.isOpened(key)) {
+                boolean fromRight = swipeStates.isOpenedRight(key);
+                swipeStates.setOpened(key, false, false);
+                swipeListView.onClosed(animation.position, fromRight);
+            } else {
+                swipeStates.setOpened(key, true, animation.swapRight);
+                swipeListView.onOpened(animation.position, animation.swapRight);
+            }
+        }
     }
 
     /**
@@ -402,7 +1013,17 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param enabled
      */
     public void setEnabled(boolean enabled) {
-        paused = !enabled;
+        gesture.setEnabled(enabled);
+    }
+
+    /**
+     * Re-enables swipes when the finger is lifted after the list stopped moving
+     */
+    private void onPointerUp() {
+        pointerDown = false;
+        if (!listViewMoving) {
+            setEnabled(true);
+        }
     }
 
     /**
@@ -413,27 +1034,32 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
         return new AbsListView.OnScrollListener() {
             @Override
             public void onScrollStateChanged(AbsListView absListView, int scrollState) {
-                setEnabled(scrollState != AbsListView.OnScrollListener.SCROLL_STATE_TOUCH_SCROLL);
                 if (swipeClosesAllItemsWhenListMoves && scrollState == SCROLL_STATE_TOUCH_SCROLL) {
                     closeOpenedItems();
                 }
-                if (scrollState==SCROLL_STATE_TOUCH_SCROLL) {
-                    listViewMoving = true;
-                    setEnabled(false);
-                }
-                if (scrollState != AbsListView.OnScrollListener.SCROLL_STATE_FLING && scrollState != SCROLL_STATE_TOUCH_SCROLL) {
-                    listViewMoving = false;
-                    swipeListView.resetScrolling();
-                    new Handler().postDelayed(new Runnable() {
-                        public void run() {
-                            setEnabled(true);
-                        }
-                    }, 500);
+                switch (scrollState) {
+                    case SCROLL_STATE_TOUCH_SCROLL:
+                        listViewMoving = true;
+                        setEnabled(false);
+                        break;
+                    case SCROLL_STATE_FLING:
+                        setEnabled(true);
+                        break;
+                    default:
+                        listViewMoving = false;
+                        swipeListView.resetScrolling();
+                        // Swipes are enabled again as soon as the list is idle and the finger is up
+                        setEnabled(!pointerDown);
+                        break;
                 }
             }
 
             @Override
             public void onScroll(AbsListView absListView, int i, int i1, int i2) {
+                bindVisibleRows();
+                if (stickyHeader.hasSections()) {
+                    stickyHeader.update(swipeListView, i);
+                }
             }
         };
     }
@@ -442,174 +1068,285 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * Close all opened items
      */
     private void closeOpenedItems() {
-        if (opened != null) {
-            int start = swipeListView.getFirstVisiblePosition();
-            int end = swipeListView.getLastVisiblePosition();
-            for (int i = start; i <= end; i++) {
-                if (opened.get(i)) {
-                    closeAnimate(swipeListView.getChildAt(i - start).findViewById(swipeFrontView), i);
+        if (swipeStates.size() > 0 || swipeStates.getDefaultFlags() != 0) {
+            closeAll();
+        }
+    }
+
+    /**
+     * Return if an item is checked
+     *
+     * @param position Position of list
+     * @return true if the item is checked
+     */
+    public boolean isChecked(int position) {
+        return checkedItems.isChecked(position);
+    }
+
+    /**
+     * Check or uncheck a range of items, notifying the changed ones in a single onChecked
+     *
+     * @param fromPosition First position, inclusive
+     * @param toPosition   Last position, exclusive
+     * @param checked      New state
+     */
+    public void setCheckedRange(int fromPosition, int toPosition, boolean checked) {
+        ListAdapter adapter = swipeListView.getAdapter();
+        if (adapter == null) {
+            return;
+        }
+        int[] positions = checkedItems.setRange(Math.max(0, fromPosition), Math.min(adapter.getCount(), toPosition), checked);
+        if (positions.length > 0) {
+            swipeListView.onChecked(positions, checked);
+        }
+    }
+
+    /**
+     * Uncheck all items, notifying them in a single onChecked
+     */
+    public void clearChecked() {
+        int[] positions = checkedItems.getPositions();
+        checkedItems.clear();
+        if (positions.length > 0) {
+            swipeListView.onChecked(positions, false);
+        }
+    }
+
+    /**
+     * Return the number of checked items
+     *
+     * @return Number of checked items
+     */
+    public int getCheckedCount() {
+        return checkedItems.size();
+    }
+
+    /**
+     * Return the checked positions
+     *
+     * @return Checked positions in ascending order
+     */
+    public int[] getCheckedPositions() {
+        return checkedItems.getPositions();
+    }
+
+    /**
+     * Return how many animations a bulk open or close starts per frame
+     *
+     * @return Animations per frame, 0 to start all of them at once
+     */
+    public int getSwipeBulkAnimationsPerFrame() {
+        return swipeBulkAnimationsPerFrame;
+    }
+
+    /**
+     * Set how many animations a bulk open or close starts per frame
+     *
+     * @param swipeBulkAnimationsPerFrame Animations per frame, 0 to start all of them at once
+     */
+    public void setSwipeBulkAnimationsPerFrame(int swipeBulkAnimationsPerFrame) {
+        this.swipeBulkAnimationsPerFrame = Math.max(0, swipeBulkAnimationsPerFrame);
+    }
+
+    /**
+     * Closes every item. Visible rows are animated, a few per frame; the other items are closed
+     * in the state store without animation nor onClosed
+     */
+    public void closeAll() {
+        startBulk(false, false);
+    }
+
+    /**
+     * Opens every item. Visible rows are animated, a few per frame; the other items are opened
+     * in the state store without animation nor onOpened
+     *
+     * @param toRight If should be opened toward the right
+     */
+    public void openAll(boolean toRight) {
+        startBulk(true, toRight);
+    }
+
+    /**
+     * Resets the state store to the target state, keeping the current state of the visible rows
+     * so their animations flip it when they end
+     * @param open true to open every item, false to close them
+     * @param toRight If opened, toward the right
+     */
+    private void startBulk(boolean open, boolean toRight) {
+        ListAdapter adapter = swipeListView.getAdapter();
+        if (adapter == null) {
+            return;
+        }
+        int target = open ? (toRight ? SwipeStateStore.FLAG_OPENED | SwipeStateStore.FLAG_OPENED_RIGHT : SwipeStateStore.FLAG_OPENED) : 0;
+        int first = swipeListView.getFirstVisiblePosition();
+        int childCount = swipeListView.getChildCount();
+        int count = adapter.getCount();
+        int visibleCount = 0;
+        bulkCount = 0;
+        bulkIndex = 0;
+        if (bulkPositions.length < childCount) {
+            bulkPositions = new int[childCount];
+            bulkKeys = new long[childCount];
+            bulkFlags = new int[childCount];
+        }
+        for (int i = 0; i < childCount; i++) {
+            int position = first + i;
+            if (position >= count || getRowHolder(swipeListView.getChildAt(i)) == null) {
+                continue;
+            }
+            long key = getItemKey(position);
+            int flags = swipeStates.getFlags(key);
+            if (flags != target) {
+                bulkKeys[visibleCount] = key;
+                bulkFlags[visibleCount++] = flags;
+                if (((flags & SwipeStateStore.FLAG_OPENED) != 0) != open) {
+                    bulkPositions[bulkCount++] = position;
                 }
             }
         }
+        swipeStates.reset(target);
+        for (int i = 0; i < visibleCount; i++) {
+            swipeStates.setFlags(bulkKeys[i], bulkFlags[i]);
+        }
+        bulkOpen = open;
+        bulkOpenRight = toRight;
+        animationEngine.unscheduleFrame(bulkStep);
+        startBulkAnimations();
+    }
 
+    /**
+     * Starts the pending animations of a bulk open or close allowed in this frame,
+     * and schedules the rest for the next frames. Rows scrolled away meanwhile change without animation
+     */
+    private void startBulkAnimations() {
+        int budget = swipeBulkAnimationsPerFrame > 0 ? swipeBulkAnimationsPerFrame : Integer.MAX_VALUE;
+        while (bulkIndex < bulkCount && budget-- > 0) {
+            int position = bulkPositions[bulkIndex++];
+            if (bulkOpen) {
+                openAnimate(position, bulkOpenRight);
+            } else {
+                closeAnimate(position);
+            }
+        }
+        if (bulkIndex < bulkCount) {
+            animationEngine.scheduleFrame(bulkStep);
+        }
     }
 
     /**
+     * Handles every MotionEvent of the list exactly once. SwipeListView calls it from dispatchTouchEvent
+     * before the event reaches its children or its own scrolling
+     *
+     * @return true if the event belongs to a swipe and must not be dispatched further
      * @see View.OnTouchListener#onTouch(android.view.View, android.view.MotionEvent)
      */
     @Override
     public boolean onTouch(View view, MotionEvent motionEvent) {
-        if (viewWidth < 2) {
-            viewWidth = swipeListView.getWidth();
-        }
+        ensureViewWidth();
 
         switch (motionEvent.getActionMasked()) {
             case MotionEvent.ACTION_DOWN: {
-                if (paused) {
+                pointerDown = true;
+                if (!gesture.down(motionEvent.getRawX(), motionEvent.getX(), motionEvent.getY())) {
                     return false;
                 }
-                swipeCurrentAction = SwipeListView.SWIPE_ACTION_NONE;
-
-                int childCount = swipeListView.getChildCount();
-                int[] listViewCoords = new int[2];
-                swipeListView.getLocationOnScreen(listViewCoords);
-                int x = (int) motionEvent.getRawX() - listViewCoords[0];
-                int y = (int) motionEvent.getRawY() - listViewCoords[1];
-                View child;
-                for (int i = 0; i < childCount; i++) {
-                    child = swipeListView.getChildAt(i);
-                    child.getHitRect(rect);
-                    if (rect.contains(x, y)) {
-                        setParentView(child);
-                        setFrontView(child.findViewById(swipeFrontView));
-                        downX = motionEvent.getRawX();
-                        downPosition = swipeListView.getPositionForView(child);
-
-                        frontView.setClickable(!opened.get(downPosition));
-                        frontView.setLongClickable(!opened.get(downPosition));
 
+                int position = swipeListView.pointToPosition((int) motionEvent.getX(), (int) motionEvent.getY());
+                if (stickyHeader.isHeaderRow(position) || motionEvent.getY() < stickyHeader.getPinnedBottom()) {
+                    // Section headers, inline or pinned, are never swiped
+                    position = ListView.INVALID_POSITION;
+                }
+                SwipeRowHolder holder = position != ListView.INVALID_POSITION ? getVisibleRowHolder(position) : null;
+                if (holder != null) {
+                    setCurrentRow(holder);
+                    downPosition = position;
+
+                    boolean downOpened = gesture.track(swipeStates, getItemKey(downPosition));
+                    frontView.setClickable(!downOpened);
+                    frontView.setLongClickable(!downOpened);
+
+                    if (velocityTracker == null) {
                         velocityTracker = VelocityTracker.obtain();
-                        velocityTracker.addMovement(motionEvent);
-                        if (swipeBackView > 0) {
-                            setBackView(child.findViewById(swipeBackView));
-                        }
-                        break;
+                    } else {
+                        velocityTracker.clear();
                     }
+                    velocityTracker.addMovement(motionEvent);
                 }
-                view.onTouchEvent(motionEvent);
-                return true;
+                return false;
             }
 
-            case MotionEvent.ACTION_UP: {
-                if (velocityTracker == null || !swiping) {
-                    break;
+            case MotionEvent.ACTION_CANCEL: {
+                onPointerUp();
+                flushPendingMove();
+                if (gesture.cancel()) {
+                    // Return the row to its previous state
+                    generateAnimate(frontView, false, false, downPosition);
                 }
+                resetGesture();
+                break;
+            }
 
-                float deltaX = motionEvent.getRawX() - downX;
-                velocityTracker.addMovement(motionEvent);
-                velocityTracker.computeCurrentVelocity(1000);
-                float velocityX = Math.abs(velocityTracker.getXVelocity());
-                if (!opened.get(downPosition)) {
-                    if (swipeMode == SwipeListView.SWIPE_MODE_LEFT && velocityTracker.getXVelocity() > 0) {
-                        velocityX = 0;
-                    }
-                    if (swipeMode == SwipeListView.SWIPE_MODE_RIGHT && velocityTracker.getXVelocity() < 0) {
-                        velocityX = 0;
-                    }
+            case MotionEvent.ACTION_UP: {
+                onPointerUp();
+                flushPendingMove();
+                float velocityX = 0;
+                float velocityY = 0;
+                if (velocityTracker != null) {
+                    velocityTracker.addMovement(motionEvent);
+                    velocityTracker.computeCurrentVelocity(1000);
+                    velocityX = velocityTracker.getXVelocity();
+                    velocityY = velocityTracker.getYVelocity();
                 }
-                float velocityY = Math.abs(velocityTracker.getYVelocity());
-                boolean swap = false;
-                boolean swapRight = false;
-                if (minFlingVelocity <= velocityX && velocityX <= maxFlingVelocity && velocityY < velocityX) {
-                    swapRight = velocityTracker.getXVelocity() > 0;
-                    if (opened.get(downPosition) && openedRight.get(downPosition) && swapRight) {
-                        swap = false;
-                    } else if (opened.get(downPosition) && !openedRight.get(downPosition) && !swapRight) {
-                        swap = false;
-                    } else {
-                        swap = true;
+                if (!gesture.up(motionEvent.getRawX(), velocityX, velocityY)) {
+                    boolean clicked = frontView != null && gesture.isTap() && backActionPainter.hasActions()
+                            && performBackActionClick(motionEvent);
+                    resetGesture();
+                    if (clicked) {
+                        return true;
                     }
-                } else if (Math.abs(deltaX) > viewWidth / 2) {
-                    swap = true;
-                    swapRight = deltaX > 0;
+                    break;
                 }
-                generateAnimate(frontView, swap, swapRight, downPosition);
 
-                velocityTracker.recycle();
-                velocityTracker = null;
-                downX = 0;
+                boolean swap = gesture.isSwap();
+                releaseVelocityX = velocityX;
+                generateAnimate(frontView, swap, gesture.isSwapRight(), downPosition);
+                releaseVelocityX = 0;
+
                 // change clickable front view
                 if (swap) {
-                    frontView.setClickable(opened.get(downPosition));
-                    frontView.setLongClickable(opened.get(downPosition));
+                    frontView.setClickable(gesture.isDownOpened());
+                    frontView.setLongClickable(gesture.isDownOpened());
                 }
-                frontView = null;
-                backView = null;
-                this.downPosition = ListView.INVALID_POSITION;
-                swiping = false;
-                break;
+                resetGesture();
+                return true;
             }
 
             case MotionEvent.ACTION_MOVE: {
-                if (velocityTracker == null || paused) {
-                    break;
+                float velocityX = 0;
+                float velocityY = 0;
+                if (velocityTracker != null && gesture.isEnabled()) {
+                    velocityTracker.addMovement(motionEvent);
+                    velocityTracker.computeCurrentVelocity(1000);
+                    velocityX = velocityTracker.getXVelocity();
+                    velocityY = velocityTracker.getYVelocity();
                 }
-
-                velocityTracker.addMovement(motionEvent);
-                velocityTracker.computeCurrentVelocity(1000);
-                float velocityX = Math.abs(velocityTracker.getXVelocity());
-                float velocityY = Math.abs(velocityTracker.getYVelocity());
-
-                float deltaX = motionEvent.getRawX() - downX;
-                float deltaMode = Math.abs(deltaX);
-                if (swipeMode == SwipeListView.SWIPE_MODE_NONE) {
-                    deltaMode = 0;
-                } else if (swipeMode != SwipeListView.SWIPE_MODE_BOTH) {
-                    if (opened.get(downPosition)) {
-                        if (swipeMode == SwipeListView.SWIPE_MODE_LEFT && deltaX < 0) {
-                            deltaMode = 0;
-                        } else if (swipeMode == SwipeListView.SWIPE_MODE_RIGHT && deltaX > 0) {
-                            deltaMode = 0;
-                        }
-                    } else {
-                        if (swipeMode == SwipeListView.SWIPE_MODE_LEFT && deltaX > 0) {
-                            deltaMode = 0;
-                        } else if (swipeMode == SwipeListView.SWIPE_MODE_RIGHT && deltaX < 0) {
-                            deltaMode = 0;
-                        }
+                int result = gesture.move(motionEvent.getRawX(), motionEvent.getX(), motionEvent.getY(), velocityX, velocityY);
+                if (result == SwipeGesture.MOVE_STARTED) {
+                    // From now on the swipe owns the gesture, cancel the touch of the rows and the list
+                    cancelTouchTargets(motionEvent);
+                    swipeListView.requestDisallowInterceptTouchEvent(true);
+                    if (gesture.getSwipeCurrentAction() == SwipeListView.SWIPE_ACTION_REVEAL) {
+                        backView = inflateBackView(currentRow);
                     }
+                    promoteLayer(gesture.getSwipeCurrentAction() == SwipeListView.SWIPE_ACTION_DISMISS ? parentView : frontView, true);
                 }
-                if (deltaMode > slop && swipeCurrentAction == SwipeListView.SWIPE_ACTION_NONE && velocityY < velocityX) {
-                    swiping = true;
-                    boolean swipingRight = (deltaX > 0);
-                    if (opened.get(downPosition)) {
-                        swipeCurrentAction = SwipeListView.SWIPE_ACTION_REVEAL;
+                if (result != SwipeGesture.MOVE_IGNORED) {
+                    if (swipeCoalesceMoves) {
+                        pendingMoveDeltaX = gesture.getTranslation();
+                        animationEngine.scheduleFrame(pendingMove);
                     } else {
-                        if (swipingRight && swipeActionRight == SwipeListView.SWIPE_ACTION_DISMISS) {
-                            swipeCurrentAction = SwipeListView.SWIPE_ACTION_DISMISS;
-                        } else if (!swipingRight && swipeActionLeft == SwipeListView.SWIPE_ACTION_DISMISS) {
-                            swipeCurrentAction = SwipeListView.SWIPE_ACTION_DISMISS;
-                        } else if (swipingRight && swipeActionRight == SwipeListView.SWIPE_ACTION_CHECK) {
-                            swipeCurrentAction = SwipeListView.SWIPE_ACTION_CHECK;
-                        } else if (!swipingRight && swipeActionLeft == SwipeListView.SWIPE_ACTION_CHECK) {
-                            swipeCurrentAction = SwipeListView.SWIPE_ACTION_CHECK;
-                        } else {
-                            swipeCurrentAction = SwipeListView.SWIPE_ACTION_REVEAL;
-                        }
-                    }
-                    swipeListView.requestDisallowInterceptTouchEvent(true);
-                    MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
-                    cancelEvent.setAction(MotionEvent.ACTION_CANCEL |
-                            (motionEvent.getActionIndex()
-                                    << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
-                    swipeListView.onTouchEvent(cancelEvent);
-                }
-
-                if (swiping) {
-                    if (opened.get(downPosition)) {
-                        deltaX += openedRight.get(downPosition) ? viewWidth - rightOffset : -viewWidth + leftOffset;
+                        move(gesture.getTranslation());
                     }
-                    move(deltaX);
                     return true;
                 }
                 break;
@@ -618,18 +1355,104 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
         return false;
     }
 
+    /**
+     * Sends ACTION_CANCEL to the rows and the list, so they drop the current gesture
+     * @param motionEvent current event
+     */
+    private void cancelTouchTargets(MotionEvent motionEvent) {
+        MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
+        cancelEvent.setAction(MotionEvent.ACTION_CANCEL |
+                (motionEvent.getActionIndex()
+                        << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
+        swipeListView.cancelTouchTargets(cancelEvent);
+        cancelEvent.recycle();
+    }
+
+    /**
+     * Notifies onClickBackView if a tap lands on a drawn back action of the touched row
+     * @param motionEvent ACTION_UP event
+     * @return true if an action was clicked
+     */
+    private boolean performBackActionClick(MotionEvent motionEvent) {
+        SwipeBackAction action = backActionPainter.hitTest(parentView, frontView, motionEvent.getX(), motionEvent.getY());
+        if (action == null) {
+            return false;
+        }
+        // The list must not take the tap as an item click
+        cancelTouchTargets(motionEvent);
+        clickedBackAction = action;
+        swipeListView.onClickBackView(downPosition);
+        swipeListView.onClickBackAction(downPosition, action.getId());
+        return true;
+    }
+
+    /**
+     * Reads the width of the list the first time it is needed
+     */
+    private void ensureViewWidth() {
+        if (viewWidth < 2) {
+            viewWidth = swipeListView.getWidth();
+            gesture.setViewWidth(viewWidth);
+        }
+    }
+
+    /**
+     * Applies a coalesced move that is still waiting for its frame, so settle animations start from the last position
+     */
+    private void flushPendingMove() {
+        if (animationEngine.unscheduleFrame(pendingMove)) {
+            move(pendingMoveDeltaX);
+        }
+    }
+
+    /**
+     * Clears the current gesture
+     */
+    private void resetGesture() {
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+        if (gestureLayerView != null) {
+            gestureLayerView = null;
+            scheduleLayerDemotion();
+        }
+        currentRow = null;
+        frontView = null;
+        backView = null;
+        downPosition = ListView.INVALID_POSITION;
+    }
+
+    /**
+     * @return true if the current gesture scrolls the list vertically
+     */
+    public boolean isScrollingY() {
+        return gesture.isScrollingY();
+    }
+
+    /**
+     * Resets scrolling
+     */
+    public void resetScrolling() {
+        gesture.resetScrolling();
+    }
+
     /**
      * Moves the view
      * @param deltaX delta
      */
     public void move(float deltaX) {
         swipeListView.onMove(downPosition, deltaX);
-        if (swipeCurrentAction == SwipeListView.SWIPE_ACTION_DISMISS) {
+        if (gesture.getSwipeCurrentAction() == SwipeListView.SWIPE_ACTION_DISMISS) {
             setTranslationX(parentView, deltaX);
             setAlpha(parentView, Math.max(0f, Math.min(1f,
                     1f - 2f * Math.abs(deltaX) / viewWidth)));
         } else {
             setTranslationX(frontView, deltaX);
+            updateBackViewVisibility(currentRow);
+            if (backActionPainter.hasActions()) {
+                swipeListView.invalidate();
+            }
         }
     }
 
@@ -639,10 +1462,13 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
     class PendingDismissData implements Comparable<PendingDismissData> {
         public int position;
         public View view;
+        public int height;
+        public int collapsed;
 
-        public PendingDismissData(int position, View view) {
+        public PendingDismissData(int position, View view, int height) {
             this.position = position;
             this.view = view;
+            this.height = height;
         }
 
         @Override
@@ -652,57 +1478,530 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
         }
     }
 
+    /**
+     * Dismisses several items at once. Visible items are swiped out and collapsed together,
+     * items out of the screen are removed without animation, and every item is reported
+     * in a single onDismiss
+     * @param positions Positions of list
+     */
+    protected void dismiss(int... positions) {
+        ensureViewWidth();
+        int[] sortedPositions = positions.clone();
+        Arrays.sort(sortedPositions);
+        int count = swipeListView.getAdapter() != null ? swipeListView.getAdapter().getCount() : 0;
+        int start = swipeListView.getFirstVisiblePosition();
+        int end = swipeListView.getLastVisiblePosition();
+        for (int i = 0; i < sortedPositions.length; i++) {
+            int position = sortedPositions[i];
+            if (position < 0 || position >= count || (i > 0 && position == sortedPositions[i - 1])
+                    || isDismissPending(position) || isDismissHidden(position)) {
+                continue;
+            }
+            SwipeRowHolder holder = position >= start && position <= end ? getVisibleRowHolder(position) : null;
+            if (holder != null) {
+                // Opened rows slide out the way they were opened
+                int state = swipeStates.getFlags(getItemKey(position));
+                boolean toRight = (state & SwipeStateStore.FLAG_OPENED) == 0 || (state & SwipeStateStore.FLAG_OPENED_RIGHT) != 0;
+                generateDismissAnimate(holder.rowView, true, toRight, position);
+            } else {
+                pendingDismisses.add(new PendingDismissData(position, null, 0));
+            }
+        }
+        if (dismissAnimationRefCount == 0 && !pendingDismisses.isEmpty()) {
+            // Nothing to animate, report the items out of the screen now
+            processPendingDismisses();
+        }
+    }
+
+    /**
+     * @param position Position of list
+     * @return true if the item is waiting for its dismiss to be reported
+     */
+    private boolean isDismissPending(int position) {
+        for (int i = pendingDismisses.size() - 1; i >= 0; i--) {
+            if (pendingDismisses.get(i).position == position) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Perform dismiss action
      * @param dismissView View
      * @param dismissPosition Position of list
      */
-    private void performDismiss(final View dismissView, final int dismissPosition) {
-        final ViewGroup.LayoutParams lp = dismissView.getLayoutParams();
-        final int originalHeight = dismissView.getHeight();
+    private void performDismiss(View dismissView, int dismissPosition) {
+        PendingDismissData pendingDismiss = new PendingDismissData(dismissPosition, dismissView, dismissView.getHeight());
+        pendingDismisses.add(pendingDismiss);
+
+        SwipeAnimationEngine.RowAnimation animation = animationEngine.obtain(SwipeAnimationEngine.TYPE_COLLAPSE, dismissView, animationTime);
+        animation.position = dismissPosition;
+        animation.data = pendingDismiss;
+        animationEngine.start(animation);
+    }
+
+    /**
+     * Collapses a dismissed row as its animation progresses
+     * @param animation collapse animation
+     */
+    private void onCollapseAnimationUpdate(SwipeAnimationEngine.RowAnimation animation) {
+        PendingDismissData pendingDismiss = (PendingDismissData) animation.data;
+        int height = pendingDismiss.height - (int) ((pendingDismiss.height - 1) * animation.fraction);
+        if (swipeDismissCollapse == SwipeListView.SWIPE_DISMISS_COLLAPSE_TRANSLATE) {
+            pendingDismiss.collapsed = pendingDismiss.height - height;
+            translateCollapsedRows();
+        } else {
+            ViewGroup.LayoutParams lp = pendingDismiss.view.getLayoutParams();
+            lp.height = height;
+            pendingDismiss.view.setLayoutParams(lp);
+        }
+    }
 
-        ValueAnimator animator = ValueAnimator.ofInt(originalHeight, 1).setDuration(animationTime);
+    /**
+     * Processes all pending dismisses once the last collapse animation ends
+     */
+    private void onCollapseAnimationEnd() {
+        --dismissAnimationRefCount;
+        if (dismissAnimationRefCount == 0) {
+            // No active animations, process all pending dismisses.
+            processPendingDismisses();
+        }
+    }
 
-        animator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                --dismissAnimationRefCount;
+    /**
+     * Reports all pending dismisses in one onDismiss and restores their views.
+     * With a commit delay they are held hidden instead, and reported when the window expires
+     */
+    private void processPendingDismisses() {
+        // Sort by descending position
+        Collections.sort(pendingDismisses);
+
+        int[] dismissPositions = new int[pendingDismisses.size()];
+        for (int i = pendingDismisses.size() - 1; i >= 0; i--) {
+            dismissPositions[i] = pendingDismisses.get(i).position;
+        }
+        if (swipeDismissCommitDelay > 0) {
+            holdDismisses(dismissPositions);
+        } else {
+            notifyDismiss(dismissPositions);
+        }
+
+        for (PendingDismissData pendingDismiss : pendingDismisses) {
+            resetDismissedView(pendingDismiss);
+        }
+        if (swipeDismissCollapse == SwipeListView.SWIPE_DISMISS_COLLAPSE_TRANSLATE) {
+            // The adapter change lays out the list once, drop the collapse offsets
+            for (int i = swipeListView.getChildCount() - 1; i >= 0; i--) {
+                setTranslationY(swipeListView.getChildAt(i), 0);
+            }
+        }
+
+        pendingDismisses.clear();
+        if (heldDismissCount > 0 || unappliedDismissCount > 0) {
+            bindHeldDismisses();
+        }
+    }
+
+    /**
+     * Restores the presentation of a dismissed row
+     * @param pendingDismiss dismissed row, its view is null if it was out of the screen
+     */
+    private void resetDismissedView(PendingDismissData pendingDismiss) {
+        if (pendingDismiss.view == null) {
+            return;
+        }
+        setAlpha(pendingDismiss.view, 1f);
+        setTranslationX(pendingDismiss.view, 0);
+        if (swipeDismissCollapse == SwipeListView.SWIPE_DISMISS_COLLAPSE_LAYOUT) {
+            ViewGroup.LayoutParams lp = pendingDismiss.view.getLayoutParams();
+            lp.height = pendingDismiss.height;
+            pendingDismiss.view.setLayoutParams(lp);
+        }
+    }
+
+    /**
+     * Releases a row that was bound to another item. Rows coming back for the same item,
+     * as every row does when the adapter notifies a change, keep their animations.
+     * A reveal in flight is finished, so the state of its item is updated, and the row is left closed.
+     * A dismiss in flight is completed without animation and reported with the other dismisses
+     * @param holder Holder of the row
+     */
+    private void releaseRow(SwipeRowHolder holder) {
+        View rowView = holder.rowView;
+        if (animationEngine.find(holder.frontView, SwipeAnimationEngine.TYPE_REVEAL) != null) {
+            animationEngine.finish(holder.frontView);
+            setTranslationX(holder.frontView, 0);
+            updateBackViewVisibility(holder);
+        }
+
+        SwipeAnimationEngine.RowAnimation dismiss = animationEngine.find(rowView, SwipeAnimationEngine.TYPE_DISMISS);
+        if (dismiss != null) {
+            boolean swap = dismiss.swap;
+            int position = dismiss.position;
+            animationEngine.cancel(rowView, SwipeAnimationEngine.TYPE_DISMISS);
+            setAlpha(rowView, 1f);
+            setTranslationX(rowView, 0);
+            if (swap) {
+                pendingDismisses.add(new PendingDismissData(position, null, 0));
                 if (dismissAnimationRefCount == 0) {
-                    // No active animations, process all pending dismisses.
-                    // Sort by descending position
-                    Collections.sort(pendingDismisses);
+                    processPendingDismisses();
+                }
+            }
+        }
 
-                    int[] dismissPositions = new int[pendingDismisses.size()];
-                    for (int i = pendingDismisses.size() - 1; i >= 0; i--) {
-                        dismissPositions[i] = pendingDismisses.get(i).position;
-                    }
-                    swipeListView.onDismiss(dismissPositions);
-
-                    ViewGroup.LayoutParams lp;
-                    for (PendingDismissData pendingDismiss : pendingDismisses) {
-                        // Reset view presentation
-                        setAlpha(pendingDismiss.view, 1f);
-                        setTranslationX(pendingDismiss.view, 0);
-                        lp = pendingDismiss.view.getLayoutParams();
-                        lp.height = originalHeight;
-                        pendingDismiss.view.setLayoutParams(lp);
-                    }
+        SwipeAnimationEngine.RowAnimation collapse = animationEngine.find(rowView, SwipeAnimationEngine.TYPE_COLLAPSE);
+        if (collapse != null) {
+            // Keep the dismiss pending but stop touching the view
+            PendingDismissData pendingDismiss = (PendingDismissData) collapse.data;
+            resetDismissedView(pendingDismiss);
+            pendingDismiss.view = null;
+            animationEngine.cancel(rowView, SwipeAnimationEngine.TYPE_COLLAPSE);
+        }
+
+        setDismissHidden(holder, false);
+    }
 
-                    pendingDismisses.clear();
+    /**
+     * Drops the state of dismissed items and notifies onDismiss. When the listener runs on an executor,
+     * the adapter changes later: the rows stay hidden and the state is dropped when the adapter reports the change
+     * @param reverseSortedPositions dismissed positions sorted by descending position
+     */
+    private void notifyDismiss(int[] reverseSortedPositions) {
+        if (swipeListView.hasSwipeEventExecutor()) {
+            if (stableIdKeys) {
+                // Ids must be read before the adapter changes. Nothing shifts until it does,
+                // then the checked rows follow their ids
+                for (int position : reverseSortedPositions) {
+                    swipeStates.setFlags(getItemKey(position), 0);
                 }
+                checkedItems.uncheck(reverseSortedPositions);
             }
-        });
+            addUnappliedDismisses(reverseSortedPositions);
+            bindHeldDismisses();
+        } else {
+            removeDismissedState(reverseSortedPositions);
+        }
+        swipeListView.onDismiss(reverseSortedPositions);
+    }
 
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                lp.height = (Integer) valueAnimator.getAnimatedValue();
-                dismissView.setLayoutParams(lp);
+    /**
+     * Records dismissed positions the adapter has not removed yet
+     * @param reverseSortedPositions dismissed positions sorted by descending position
+     */
+    private void addUnappliedDismisses(int[] reverseSortedPositions) {
+        if (unappliedDismissCount + reverseSortedPositions.length > unappliedDismisses.length) {
+            unappliedDismisses = Arrays.copyOf(unappliedDismisses, Math.max(unappliedDismisses.length * 2,
+                    unappliedDismissCount + reverseSortedPositions.length));
+        }
+        for (int position : reverseSortedPositions) {
+            int index = Arrays.binarySearch(unappliedDismisses, 0, unappliedDismissCount, position);
+            if (index < 0) {
+                index = ~index;
+                System.arraycopy(unappliedDismisses, index, unappliedDismisses, index + 1, unappliedDismissCount - index);
+                unappliedDismisses[index] = position;
+                unappliedDismissCount++;
+            }
+        }
+    }
+
+    /**
+     * @param position Position of list
+     * @return true if the row of the item must stay hidden, because its dismiss is held or not applied yet
+     */
+    private boolean isDismissHidden(int position) {
+        return isDismissHeld(position)
+                || (unappliedDismissCount > 0 && Arrays.binarySearch(unappliedDismisses, 0, unappliedDismissCount, position) >= 0);
+    }
+
+    /**
+     * Drops the swipe and checked state of dismissed items, shifting the following ones without stable ids
+     * @param reverseSortedPositions dismissed positions sorted by descending position
+     */
+    private void removeDismissedState(int[] reverseSortedPositions) {
+        if (stableIdKeys) {
+            for (int position : reverseSortedPositions) {
+                swipeStates.setFlags(getItemKey(position), 0);
+            }
+        } else {
+            // Shift the state of the following items before the adapter changes
+            swipeStates.removePositions(reverseSortedPositions);
+            unbindVisibleRows();
+        }
+        checkedItems.removePositions(reverseSortedPositions);
+    }
+
+    /**
+     * Return how long dismissed items are held before onDismiss
+     *
+     * @return Delay in milliseconds, 0 if dismisses are reported right away
+     */
+    public long getSwipeDismissCommitDelay() {
+        return swipeDismissCommitDelay;
+    }
+
+    /**
+     * Set how long dismissed items are held hidden before onDismiss. Dismisses within the window
+     * are merged and reported together, and can be undone until then
+     *
+     * @param swipeDismissCommitDelay Delay in milliseconds, 0 to report dismisses right away
+     */
+    public void setSwipeDismissCommitDelay(long swipeDismissCommitDelay) {
+        this.swipeDismissCommitDelay = Math.max(0, swipeDismissCommitDelay);
+        if (this.swipeDismissCommitDelay == 0) {
+            commitDismiss();
+        }
+    }
+
+    /**
+     * Adds dismissed items to the held ones and restarts the commit window. They are held by item key,
+     * so with stable ids they follow their items through data changes
+     * @param reverseSortedPositions dismissed positions sorted by descending position
+     */
+    private void holdDismisses(int[] reverseSortedPositions) {
+        for (int position : reverseSortedPositions) {
+            holdDismiss(getItemKey(position), position);
+        }
+        swipeListView.removeCallbacks(commitDismisses);
+        swipeListView.postDelayed(commitDismisses, swipeDismissCommitDelay);
+    }
+
+    /**
+     * Adds an item to the held dismisses, if not held already
+     * @param key Key of the item
+     * @param position Position the item was dismissed from, -1 if unknown
+     */
+    private void holdDismiss(long key, int position) {
+        int index = Arrays.binarySearch(heldDismissKeys, 0, heldDismissCount, key);
+        if (index >= 0) {
+            return;
+        }
+        if (heldDismissCount == heldDismissKeys.length) {
+            heldDismissKeys = Arrays.copyOf(heldDismissKeys, heldDismissCount * 2);
+            heldDismissPositions = Arrays.copyOf(heldDismissPositions, heldDismissCount * 2);
+        }
+        index = ~index;
+        System.arraycopy(heldDismissKeys, index, heldDismissKeys, index + 1, heldDismissCount - index);
+        System.arraycopy(heldDismissPositions, index, heldDismissPositions, index + 1, heldDismissCount - index);
+        heldDismissKeys[index] = key;
+        heldDismissPositions[index] = position;
+        heldDismissCount++;
+    }
+
+    /**
+     * @param position Position of list
+     * @return true if the item is dismissed and waiting for the commit window to expire
+     */
+    private boolean isDismissHeld(int position) {
+        if (heldDismissCount == 0 || position >= swipeListView.getAdapter().getCount()) {
+            return false;
+        }
+        return Arrays.binarySearch(heldDismissKeys, 0, heldDismissCount, getItemKey(position)) >= 0;
+    }
+
+    /**
+     * Finds the current positions of the held items. Each one is checked at the position it was dismissed from;
+     * only if the data moved under it, the adapter is searched by id, once for all of them.
+     * Items no longer in the adapter are left out
+     * @return positions sorted by descending position
+     */
+    private int[] resolveHeldDismisses() {
+        ListAdapter adapter = swipeListView.getAdapter();
+        int count = adapter != null ? adapter.getCount() : 0;
+        int[] positions = new int[heldDismissCount];
+        int unresolved = 0;
+        for (int i = 0; i < heldDismissCount; i++) {
+            int position = heldDismissPositions[i];
+            if (position >= 0 && position < count && getItemKey(position) == heldDismissKeys[i]) {
+                positions[i] = position;
+            } else {
+                positions[i] = -1;
+                unresolved++;
+            }
+        }
+        for (int position = 0; stableIdKeys && unresolved > 0 && position < count; position++) {
+            int index = Arrays.binarySearch(heldDismissKeys, 0, heldDismissCount, adapter.getItemId(position));
+            if (index >= 0 && positions[index] < 0) {
+                positions[index] = position;
+                unresolved--;
+            }
+        }
+        Arrays.sort(positions);
+        int resolved = positions.length - unresolved;
+        int[] reverseSortedPositions = new int[resolved];
+        for (int i = 0; i < resolved; i++) {
+            reverseSortedPositions[i] = positions[positions.length - 1 - i];
+        }
+        return reverseSortedPositions;
+    }
+
+    /**
+     * Reports the held dismisses now, in one onDismiss
+     *
+     * @return true if there were held dismisses
+     */
+    public boolean commitDismiss() {
+        swipeListView.removeCallbacks(commitDismisses);
+        if (heldDismissCount == 0) {
+            return false;
+        }
+        int[] reverseSortedPositions = resolveHeldDismisses();
+        heldDismissCount = 0;
+        // Show the rows again before the adapter change lays out the list
+        bindHeldDismisses();
+        if (reverseSortedPositions.length > 0) {
+            notifyDismiss(reverseSortedPositions);
+        }
+        return true;
+    }
+
+    /**
+     * Brings back the held dismissed items. The adapter is not notified
+     *
+     * @return true if there were held dismisses
+     */
+    public boolean undoDismiss() {
+        swipeListView.removeCallbacks(commitDismisses);
+        if (heldDismissCount == 0) {
+            return false;
+        }
+        heldDismissCount = 0;
+        bindHeldDismisses();
+        return true;
+    }
+
+    /**
+     * Forgets the held dismisses and shows their rows again, when they can no longer be matched to their items
+     */
+    private void dropHeldDismisses() {
+        if (heldDismissCount > 0) {
+            heldDismissCount = 0;
+            swipeListView.removeCallbacks(commitDismisses);
+            bindHeldDismisses();
+        }
+    }
+
+    /**
+     * Applies the swipe state of their item to the visible rows bound since the last pass, without animation,
+     * and keeps the rows of held dismisses collapsed. It runs after every layout and scroll of the list
+     */
+    private void bindVisibleRows() {
+        ListAdapter adapter = swipeListView.getAdapter();
+        int count = adapter != null ? adapter.getCount() : 0;
+        boolean bindDismisses = heldDismissCount > 0 || unappliedDismissCount > 0 || hiddenRowCount > 0;
+        int first = swipeListView.getFirstVisiblePosition();
+        for (int i = swipeListView.getChildCount() - 1; i >= 0; i--) {
+            SwipeRowHolder holder = getRowHolder(swipeListView.getChildAt(i));
+            if (holder == null) {
+                continue;
+            }
+            int position = first + i;
+            long key = position < count ? getItemKey(position) : SwipeRowHolder.NO_KEY;
+            if (holder.boundKey != key) {
+                if (holder.boundKey != SwipeRowHolder.NO_KEY) {
+                    releaseRow(holder);
+                }
+                holder.boundKey = key;
+                if (key != SwipeRowHolder.NO_KEY) {
+                    applySwipeState(holder, key);
+                }
+            }
+            if (bindDismisses) {
+                setDismissHidden(holder, isDismissHidden(position));
+            }
+        }
+    }
+
+    /**
+     * Makes the next bind pass apply the state of their item to all the visible rows. Needed when the state
+     * keyed by position changes, since ListView usually gives each position back its own row
+     */
+    private void unbindVisibleRows() {
+        for (int i = swipeListView.getChildCount() - 1; i >= 0; i--) {
+            SwipeRowHolder holder = getRowHolder(swipeListView.getChildAt(i));
+            if (holder != null) {
+                holder.boundKey = SwipeRowHolder.NO_KEY;
+            }
+        }
+    }
+
+    /**
+     * Moves the front view of a row to the position matching the state of its item, without animation
+     * @param holder Holder of the row
+     * @param key Key of the item
+     */
+    private void applySwipeState(SwipeRowHolder holder, long key) {
+        if (holder == currentRow || animationEngine.find(holder.frontView, SwipeAnimationEngine.TYPE_REVEAL) != null) {
+            return;
+        }
+        int state = swipeStates.getFlags(key);
+        float translation = 0;
+        if ((state & SwipeStateStore.FLAG_OPENED) != 0) {
+            ensureViewWidth();
+            inflateBackView(holder);
+            translation = (state & SwipeStateStore.FLAG_OPENED_RIGHT) != 0 ? viewWidth - rightOffset : -viewWidth + leftOffset;
+        }
+        if (getTranslationX(holder.frontView) != translation) {
+            setTranslationX(holder.frontView, translation);
+            updateBackViewVisibility(holder);
+        }
+    }
+
+    /**
+     * Collapses the visible rows of held dismisses and restores the other ones,
+     * so recycled rows follow the items they show
+     */
+    private void bindHeldDismisses() {
+        int first = swipeListView.getFirstVisiblePosition();
+        for (int i = swipeListView.getChildCount() - 1; i >= 0; i--) {
+            SwipeRowHolder holder = getRowHolder(swipeListView.getChildAt(i));
+            if (holder != null) {
+                setDismissHidden(holder, isDismissHidden(first + i));
             }
-        });
+        }
+    }
+
+    /**
+     * Hides or shows a row held as dismissed
+     * @param holder Holder of the row
+     * @param hidden true to collapse the row
+     */
+    private void setDismissHidden(SwipeRowHolder holder, boolean hidden) {
+        if (holder.dismissHidden == hidden) {
+            return;
+        }
+        ViewGroup.LayoutParams lp = holder.rowView.getLayoutParams();
+        if (hidden) {
+            holder.dismissHiddenHeight = lp.height;
+            lp.height = 1;
+            setAlpha(holder.rowView, 0f);
+            hiddenRowCount++;
+        } else {
+            lp.height = holder.dismissHiddenHeight;
+            setAlpha(holder.rowView, 1f);
+            hiddenRowCount--;
+        }
+        holder.dismissHidden = hidden;
+        holder.rowView.setLayoutParams(lp);
+    }
 
-        pendingDismisses.add(new PendingDismissData(dismissPosition, dismissView));
-        animator.start();
+    /**
+     * Translates up the rows below the rows being dismissed, so they close the gap without a layout pass
+     */
+    private void translateCollapsedRows() {
+        int pendingCount = pendingDismisses.size();
+        for (int i = swipeListView.getChildCount() - 1; i >= 0; i--) {
+            View child = swipeListView.getChildAt(i);
+            int top = child.getTop();
+            int offset = 0;
+            for (int j = 0; j < pendingCount; j++) {
+                PendingDismissData pendingDismiss = pendingDismisses.get(j);
+                if (pendingDismiss.view != null && pendingDismiss.view != child && top >= pendingDismiss.view.getTop()) {
+                    offset += pendingDismiss.collapsed;
+                }
+            }
+            setTranslationY(child, -offset);
+        }
     }
 
 }
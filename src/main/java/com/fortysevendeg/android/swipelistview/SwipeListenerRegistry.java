@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+/**
+ * Copy-on-write registry of the listeners of a SwipeListView. Registering copies the array,
+ * dispatching only walks it, so events are fanned out without allocations or locks, from any thread.
+ * Each listener only receives the event types it registered for, onChecked only if it implements
+ * SwipeListViewCheckListener and onClickBackAction only if it implements SwipeListViewBackActionListener
+ */
+class SwipeListenerRegistry implements SwipeListViewListener, SwipeListViewCheckListener, SwipeListViewBackActionListener {
+
+    /**
+     * Registered listener and its event mask
+     */
+    private static final class Registration {
+        final SwipeListViewListener listener;
+        final int events;
+
+        Registration(SwipeListViewListener listener, int events) {
+            this.listener = listener;
+            if (!(listener instanceof SwipeListViewCheckListener)) {
+                events &= ~SwipeListView.EVENT_CHECKED;
+            }
+            if (!(listener instanceof SwipeListViewBackActionListener)) {
+                events &= ~SwipeListView.EVENT_CLICK_BACK_ACTION;
+            }
+            this.events = events;
+        }
+    }
+
+    private static final Registration[] EMPTY = new Registration[0];
+
+    private volatile Registration[] registrations = EMPTY;
+
+    /**
+     * Union of the event masks, to skip events nobody listens to
+     */
+    private volatile int events;
+
+    /**
+     * Registers a listener, replacing its event mask if it was already registered
+     * @param listener listener
+     * @param events SwipeListView.EVENT_* flags
+     */
+    synchronized void add(SwipeListViewListener listener, int events) {
+        Registration[] current = registrations;
+        int index = indexOf(current, listener);
+        Registration[] updated;
+        if (index >= 0) {
+            updated = current.clone();
+        } else {
+            updated = new Registration[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            index = current.length;
+        }
+        updated[index] = new Registration(listener, events);
+        publish(updated);
+    }
+
+    /**
+     * Unregisters a listener
+     * @param listener listener
+     */
+    synchronized void remove(SwipeListViewListener listener) {
+        Registration[] current = registrations;
+        int index = indexOf(current, listener);
+        if (index < 0) {
+            return;
+        }
+        Registration[] updated = new Registration[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        publish(updated);
+    }
+
+    /**
+     * @param event SwipeListView.EVENT_* flag
+     * @return true if any listener receives the event
+     */
+    boolean wants(int event) {
+        return (events & event) != 0;
+    }
+
+    private void publish(Registration[] updated) {
+        int union = 0;
+        for (Registration registration : updated) {
+            union |= registration.events;
+        }
+        registrations = updated;
+        events = union;
+    }
+
+    private static int indexOf(Registration[] registrations, SwipeListViewListener listener) {
+        for (int i = 0; i < registrations.length; i++) {
+            if (registrations[i].listener == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void onOpened(int position, boolean toRight) {
+        Registration[] current = registrations;
+        for (int i = 0; i < current.length; i++) {
+            if ((current[i].events & SwipeListView.EVENT_OPENED) != 0) {
+                current[i].listener.onOpened(position, toRight);
+            }
+        }
+    }
+
+    @Override
+    public void onClosed(int position, boolean fromRight) {
+        Registration[] current = registrations;
+        for (int i = 0; i < current.length; i++) {
+            if ((current[i].events & SwipeListView.EVENT_CLOSED) != 0) {
+                current[i].listener.onClosed(position, fromRight);
+            }
+        }
+    }
+
+    @Override
+    public void onListChanged() {
+        Registration[] current = registrations;
+        for (int i = 0; i < current.length; i++) {
+            if ((current[i].events & SwipeListView.EVENT_LIST_CHANGED) != 0) {
+                current[i].listener.onListChanged();
+            }
+        }
+    }
+
+    @Override
+    public void onMove(int position, float x) {
+        Registration[] current = registrations;
+        for (int i = 0; i < current.length; i++) {
+            if ((current[i].events & SwipeListView.EVENT_MOVE) != 0) {
+                current[i].listener.onMove(position, x);
+            }
+        }
+    }
+
+    @Override
+    public void onClickFrontView(int position) {
+        Registration[] current = registrations;
+        for (int i = 0; i < current.length; i++) {
+            if ((current[i].events & SwipeListView.EVENT_CLICK_FRONT_VIEW) != 0) {
+                current[i].listener.onClickFrontView(position);
+            }
+        }
+    }
+
+    @Override
+    public void onClickBackView(int position) {
+        Registration[] current = registrations;
+        for (int i = 0; i < current.length; i++) {
+            if ((current[i].events & SwipeListView.EVENT_CLICK_BACK_VIEW) != 0) {
+                current[i].listener.onClickBackView(position);
+            }
+        }
+    }
+
+    @Override
+    public void onClickBackAction(int position, int actionId) {
+        Registration[] current = registrations;
+        for (int i = 0; i < current.length; i++) {
+            if ((current[i].events & SwipeListView.EVENT_CLICK_BACK_ACTION) != 0) {
+                ((SwipeListViewBackActionListener) current[i].listener).onClickBackAction(position, actionId);
+            }
+        }
+    }
+
+    @Override
+    public void onDismiss(int[] reverseSortedPositions) {
+        Registration[] current = registrations;
+        for (int i = 0; i < current.length; i++) {
+            if ((current[i].events & SwipeListView.EVENT_DISMISS) != 0) {
+                current[i].listener.onDismiss(reverseSortedPositions);
+            }
+        }
+    }
+
+    @Override
+    public void onChecked(int[] positions, boolean checked) {
+        Registration[] current = registrations;
+        for (int i = 0; i < current.length; i++) {
+            if ((current[i].events & SwipeListView.EVENT_CHECKED) != 0) {
+                ((SwipeListViewCheckListener) current[i].listener).onChecked(positions, checked);
+            }
+        }
+    }
+
+}
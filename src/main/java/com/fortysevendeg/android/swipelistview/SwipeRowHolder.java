@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+import android.view.View;
+import android.view.ViewStub;
+
+/**
+ * Caches the swipe related views of a row. It is stored as a tag of the row view and its front view
+ * the first time the SwipeListView sees the row, so later lookups don't walk the view tree
+ */
+class SwipeRowHolder {
+
+    /**
+     * Key of a row not bound to any item yet
+     */
+    static final long NO_KEY = Long.MIN_VALUE;
+
+    /**
+     * Tag of the row views without front view, like headers, footers and section rows
+     */
+    static final Object NO_FRONT_VIEW = new Object();
+
+    /**
+     * Row view
+     */
+    final View rowView;
+
+    /**
+     * Front view of the row
+     */
+    final View frontView;
+
+    /**
+     * Back view of the row, null if the row has none or it is not inflated yet
+     */
+    View backView;
+
+    /**
+     * Stub of the back view while it is not inflated, null otherwise
+     */
+    ViewStub backStub;
+
+    /**
+     * Key of the item whose swipe state was last applied to the row
+     */
+    long boundKey = NO_KEY;
+
+    /**
+     * True while the row is collapsed for a held dismiss
+     */
+    boolean dismissHidden;
+
+    /**
+     * Layout height of the row before it was collapsed for a held dismiss
+     */
+    int dismissHiddenHeight;
+
+    /**
+     * Constructor
+     * @param rowView row view
+     * @param frontView front view of the row
+     * @param backView back view of the row, or its ViewStub
+     */
+    SwipeRowHolder(View rowView, View frontView, View backView) {
+        this.rowView = rowView;
+        this.frontView = frontView;
+        if (backView instanceof ViewStub) {
+            this.backStub = (ViewStub) backView;
+        } else {
+            this.backView = backView;
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.SectionIndexer;
+
+/**
+ * Adapter of a SwipeListView with sticky section headers. The row at getPositionForSection of every section
+ * is the header row of the section and is never swiped. The header of the section at the top of the list
+ * stays pinned, drawn from the view returned by getHeaderView
+ */
+public interface SwipeSectionAdapter extends SectionIndexer {
+
+    /**
+     * Returns the pinned header of a section. It is only called when the pinned section changes,
+     * and the view is drawn as it is until then
+     * @param section section index
+     * @param convertView previous pinned header to reuse, null the first time
+     * @param parent list
+     * @return header view
+     */
+    View getHeaderView(int section, View convertView, ViewGroup parent);
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+import java.util.Arrays;
+
+/**
+ * Sparse store for the swipe state of the rows of a SwipeListView.
+ * Only rows with a non default state are kept, in primitive arrays sorted by key,
+ * so memory scales with the number of open rows instead of the adapter size.
+ * The default state can be changed, so opening every row stays as sparse as closing them.
+ * Keys are either adapter positions or stable item ids.
+ */
+class SwipeStateStore {
+
+    /**
+     * Row is opened
+     */
+    static final int FLAG_OPENED = 1;
+
+    /**
+     * Row is opened toward the right
+     */
+    static final int FLAG_OPENED_RIGHT = 1 << 1;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] flags = new int[INITIAL_CAPACITY];
+    private int size;
+    private int defaultFlags;
+
+    /**
+     * Returns the flags stored for a row
+     * @param key row key
+     * @return flags, the default flags if the row has no state of its own
+     */
+    int getFlags(long key) {
+        int index = binarySearch(key);
+        return index >= 0 ? flags[index] : defaultFlags;
+    }
+
+    /**
+     * Replaces the flags of a row. Rows with the default flags are removed from the store
+     * @param key row key
+     * @param value new flags
+     */
+    void setFlags(long key, int value) {
+        int index = binarySearch(key);
+        if (index >= 0) {
+            if (value == defaultFlags) {
+                removeAt(index);
+            } else {
+                flags[index] = value;
+            }
+        } else if (value != defaultFlags) {
+            insertAt(~index, key, value);
+        }
+    }
+
+    /**
+     * @param key row key
+     * @return true if the row is opened
+     */
+    boolean isOpened(long key) {
+        return (getFlags(key) & FLAG_OPENED) != 0;
+    }
+
+    /**
+     * @param key row key
+     * @return true if the row is opened toward the right
+     */
+    boolean isOpenedRight(long key) {
+        return (getFlags(key) & FLAG_OPENED_RIGHT) != 0;
+    }
+
+    /**
+     * Sets the opened state of a row
+     * @param key row key
+     * @param opened If the row is opened
+     * @param right If the row is opened toward the right. Ignored when closed
+     */
+    void setOpened(long key, boolean opened, boolean right) {
+        int value = getFlags(key) & ~(FLAG_OPENED | FLAG_OPENED_RIGHT);
+        if (opened) {
+            value |= right ? FLAG_OPENED | FLAG_OPENED_RIGHT : FLAG_OPENED;
+        }
+        setFlags(key, value);
+    }
+
+    /**
+     * Drops the state of every row whose key is equal or greater than limit
+     * @param limit first key to drop
+     */
+    void truncate(long limit) {
+        int index = binarySearch(limit);
+        size = index >= 0 ? index : ~index;
+    }
+
+    /**
+     * Remaps position keys after some positions were removed from the adapter.
+     * State of removed positions is dropped and the following ones are shifted
+     * @param reverseSortedPositions removed positions sorted by descending position
+     */
+    void removePositions(int[] reverseSortedPositions) {
+        for (int position : reverseSortedPositions) {
+            int index = binarySearch(position);
+            if (index >= 0) {
+                removeAt(index);
+            } else {
+                index = ~index;
+            }
+            for (int i = index; i < size; i++) {
+                keys[i]--;
+            }
+        }
+    }
+
+    /**
+     * Removes all state
+     */
+    void clear() {
+        reset(0);
+    }
+
+    /**
+     * Removes the state of every row and gives all of them the same flags
+     * @param defaultFlags flags of every row
+     */
+    void reset(int defaultFlags) {
+        this.defaultFlags = defaultFlags;
+        size = 0;
+    }
+
+    /**
+     * Replaces all state with saved entries
+     * @param defaultFlags flags of the rows without state of their own
+     * @param keys keys in ascending order
+     * @param flags flags of each key
+     */
+    void restore(int defaultFlags, long[] keys, int[] flags) {
+        this.defaultFlags = defaultFlags;
+        this.keys = Arrays.copyOf(keys, Math.max(INITIAL_CAPACITY, keys.length));
+        this.flags = Arrays.copyOf(flags, Math.max(INITIAL_CAPACITY, flags.length));
+        size = keys.length;
+    }
+
+    /**
+     * @return flags of the rows without state of their own
+     */
+    int getDefaultFlags() {
+        return defaultFlags;
+    }
+
+    /**
+     * @return number of rows with state of their own
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index entry index, between 0 and size() - 1
+     * @return key of the entry, in ascending order
+     */
+    long keyAt(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @param index entry index, between 0 and size() - 1
+     * @return flags of the entry
+     */
+    int flagsAt(int index) {
+        return flags[index];
+    }
+
+    private int binarySearch(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = keys[mid];
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return ~low;
+    }
+
+    private void insertAt(int index, long key, int value) {
+        if (size == keys.length) {
+            long[] newKeys = new long[size * 2];
+            int[] newFlags = new int[size * 2];
+            System.arraycopy(keys, 0, newKeys, 0, size);
+            System.arraycopy(flags, 0, newFlags, 0, size);
+            keys = newKeys;
+            flags = newFlags;
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(flags, index, flags, index + 1, size - index);
+        keys[index] = key;
+        flags[index] = value;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(flags, index + 1, flags, index, size - index - 1);
+        size--;
+    }
+
+}
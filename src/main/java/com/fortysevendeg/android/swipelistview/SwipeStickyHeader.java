@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.android.swipelistview;
+
+import android.graphics.Canvas;
+import android.view.View;
+import android.widget.ListView;
+
+import java.util.Arrays;
+
+/**
+ * Pinned section header of a SwipeListView. The start position of every section is kept in a sorted table,
+ * rebuilt when the adapter changes, so the section at the top of the list is found by binary search on scroll.
+ * The header view is bound and measured only when the pinned section changes, and drawn as it is on every frame
+ */
+class SwipeStickyHeader {
+
+    private SwipeSectionAdapter adapter;
+    private int positionOffset;
+
+    private int[] starts = new int[0];
+    private int[] sections = new int[0];
+    private int count;
+
+    private View headerView;
+    private int headerSection = -1;
+    private int headerWidth;
+    private int headerOffset;
+    private boolean headerVisible;
+
+    /**
+     * Sets the adapter providing the sections
+     * @param adapter section adapter, null to remove the headers
+     * @param positionOffset number of list header views before the adapter rows
+     */
+    void setAdapter(SwipeSectionAdapter adapter, int positionOffset) {
+        this.adapter = adapter;
+        this.positionOffset = positionOffset;
+        headerView = null;
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the section start table after the data changed. It costs one lookup per section
+     */
+    void rebuild() {
+        headerSection = -1;
+        headerVisible = false;
+        count = 0;
+        Object[] adapterSections = adapter != null ? adapter.getSections() : null;
+        if (adapterSections == null) {
+            return;
+        }
+        if (starts.length < adapterSections.length) {
+            starts = new int[adapterSections.length];
+            sections = new int[adapterSections.length];
+        }
+        boolean sorted = true;
+        for (int section = 0; section < adapterSections.length; section++) {
+            int start = adapter.getPositionForSection(section);
+            if (start < 0) {
+                continue;
+            }
+            start += positionOffset;
+            if (count > 0 && start == starts[count - 1]) {
+                // Empty sections share the start of the next one
+                continue;
+            }
+            sorted &= count == 0 || start > starts[count - 1];
+            starts[count] = start;
+            sections[count] = section;
+            count++;
+        }
+        if (!sorted) {
+            sortTable();
+        }
+    }
+
+    /**
+     * @return true if the adapter has sections
+     */
+    boolean hasSections() {
+        return count > 0;
+    }
+
+    /**
+     * @param position list position
+     * @return true if the row is the header row of a section
+     */
+    boolean isHeaderRow(int position) {
+        return count > 0 && Arrays.binarySearch(starts, 0, count, position) >= 0;
+    }
+
+    /**
+     * @return bottom of the pinned header in list coordinates, 0 if it is not shown
+     */
+    int getPinnedBottom() {
+        return headerVisible ? headerOffset + headerView.getMeasuredHeight() : 0;
+    }
+
+    /**
+     * Finds the section at the top of the list, binds its header if it changed, and pushes it up
+     * when the header row of the next section reaches it
+     * @param listView list
+     * @param firstVisiblePosition first visible position of the list
+     */
+    void update(ListView listView, int firstVisiblePosition) {
+        headerVisible = false;
+        int index = count > 0 ? floorIndex(firstVisiblePosition) : -1;
+        int width = listView.getWidth() - listView.getPaddingLeft() - listView.getPaddingRight();
+        if (index < 0 || width <= 0 || listView.getChildCount() == 0) {
+            return;
+        }
+        int top = listView.getPaddingTop();
+        if (starts[index] == firstVisiblePosition && listView.getChildAt(0).getTop() >= top) {
+            // The header row itself is fully shown
+            return;
+        }
+        if (sections[index] != headerSection || width != headerWidth) {
+            headerView = adapter.getHeaderView(sections[index], headerView, listView);
+            headerView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+            headerView.layout(0, 0, width, headerView.getMeasuredHeight());
+            headerSection = sections[index];
+            headerWidth = width;
+        }
+        headerOffset = top;
+        if (index + 1 < count) {
+            int nextChild = starts[index + 1] - firstVisiblePosition;
+            if (nextChild < listView.getChildCount()) {
+                int nextTop = listView.getChildAt(nextChild).getTop();
+                headerOffset = Math.min(top, nextTop - headerView.getMeasuredHeight());
+            }
+        }
+        headerVisible = true;
+    }
+
+    /**
+     * Draws the pinned header over the rows
+     * @param canvas canvas of the list
+     * @param listView list
+     */
+    void draw(Canvas canvas, ListView listView) {
+        if (!headerVisible) {
+            return;
+        }
+        int saveCount = canvas.save();
+        canvas.clipRect(listView.getPaddingLeft(), listView.getPaddingTop(),
+                listView.getWidth() - listView.getPaddingRight(), listView.getHeight() - listView.getPaddingBottom());
+        canvas.translate(listView.getPaddingLeft(), headerOffset);
+        headerView.draw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * @return index in the table of the last section starting at or before the position, -1 if there is none
+     */
+    private int floorIndex(int position) {
+        int index = Arrays.binarySearch(starts, 0, count, position);
+        return index >= 0 ? index : ~index - 1;
+    }
+
+    /**
+     * Sorts the table by start position, for indexers that do not return their sections in order
+     */
+    private void sortTable() {
+        for (int i = 1; i < count; i++) {
+            int start = starts[i];
+            int section = sections[i];
+            int j = i - 1;
+            while (j >= 0 && starts[j] > start) {
+                starts[j + 1] = starts[j];
+                sections[j + 1] = sections[j];
+                j--;
+            }
+            starts[j + 1] = start;
+            sections[j + 1] = section;
+        }
+    }
+
+}